@@ -0,0 +1,66 @@
+import benchmarks.Board;
+
+//The recorded board states for the benchmarks (see benchmarks.Board). The snake is laid out by following a
+//Hamiltonian cycle while growing every move, which gives the same board for the same size and fill every time and
+//reaches any fill ratio in as many moves as the snake is long.
+public class BenchmarkBoard implements Board {
+    private GameEngine engine;
+    private Snake snake;
+    private Pathfinder pathFinder;
+    private HamiltonianStrategy cycle;
+
+    public BenchmarkBoard(String size, double fill) {
+        Grid grid = Grid.parse(size);
+        engine = new GameEngine(grid, 42);
+        snake = engine.getSnake();
+        pathFinder = new Pathfinder(engine, snake);
+        cycle = new HamiltonianStrategy(grid);
+        cycle.setShortcutFraction(0);
+
+        int length = (int) (fill * grid.getInteriorCellCount());
+        while (snake.getBodyLength() + 2 < length) {
+            snake.grow();
+            moveAI();
+        }
+        //the snake has grown over the food, so it has to go on a free cell again
+        engine.moveFood();
+    }
+
+    @Override
+    public boolean canFindPath() {
+        return pathFinder.canFindPath(snake.getSnakeHead(), engine.getFood());
+    }
+
+    @Override
+    public Object getNextCell() {
+        return pathFinder.getNextCell(snake.getSnakeHead(), engine.getFood());
+    }
+
+    @Override
+    public Object getNextCellConservatively() {
+        return pathFinder.getNextCellConservatively(snake.getSnakeHead(), engine.getFood());
+    }
+
+    @Override
+    public boolean isInLegalCell(int id) {
+        return engine.isInLegalCell(engine.getCell(id));
+    }
+
+    @Override
+    public Object moveFood() {
+        engine.moveFood();
+        return engine.getFood();
+    }
+
+    @Override
+    public Object moveAI() {
+        snake.addNextCellByAI(cycle.getNextCell(engine));
+        snake.moveAI();
+        return snake.getSnakeHead();
+    }
+
+    @Override
+    public int getCellCount() {
+        return engine.getGrid().getCellCount();
+    }
+}
@@ -0,0 +1,28 @@
+package benchmarks;
+
+//A recorded board state for the benchmarks to run against. JMH does not allow benchmarks in the default package, and
+//classes in a package cannot refer to the game's classes in the default package, so the implementation
+//(BenchmarkBoard) lives in the default package and is loaded by name.
+public interface Board {
+    //size is the grid size including the walls, like 15x10, and fill is the fraction of the board the snake covers
+    static Board create(String size, double fill) throws ReflectiveOperationException {
+        return (Board) Class.forName("BenchmarkBoard").getConstructor(String.class, double.class)
+                .newInstance(size, fill);
+    }
+
+    boolean canFindPath();
+
+    Object getNextCell();
+
+    Object getNextCellConservatively();
+
+    boolean isInLegalCell(int id);
+
+    //puts the food on a new random free cell
+    Object moveFood();
+
+    //moves the snake one cell further around the board without growing
+    Object moveAI();
+
+    int getCellCount();
+}
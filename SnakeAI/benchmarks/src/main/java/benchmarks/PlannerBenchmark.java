@@ -0,0 +1,62 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//Benchmarks the pathfinder and snake hot paths on recorded boards of several sizes and fill ratios.
+//Build with mvn package and run with java -jar SnakeAI/benchmarks/target/benchmarks.jar -prof gc to also report the
+//allocation rate.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlannerBenchmark {
+
+    @Param({"15x10", "40x40", "200x200"})
+    public String size;
+
+    @Param({"0.1", "0.5", "0.9"})
+    public double fill;
+
+    private Board board;
+    private int cell;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        board = Board.create(size, fill);
+    }
+
+    @Benchmark
+    public boolean canFindPath() {
+        return board.canFindPath();
+    }
+
+    @Benchmark
+    public Object getNextCell() {
+        return board.getNextCell();
+    }
+
+    @Benchmark
+    public Object getNextCellConservatively() {
+        return board.getNextCellConservatively();
+    }
+
+    @Benchmark
+    public boolean isInLegalCell() {
+        cell = cell + 1 == board.getCellCount() ? 0 : cell + 1;
+        return board.isInLegalCell(cell);
+    }
+
+    @Benchmark
+    public Object moveFood() {
+        return board.moveFood();
+    }
+
+    @Benchmark
+    public Object moveAI() {
+        return board.moveAI();
+    }
+}
@@ -0,0 +1,329 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+//The Arena plays many AI snakes on one board at the same time, each with its own strategy and Pathfinder (see
+//ArenaPlayer). Every tick has two phases:
+//  planning: every living snake picks the cell it wants to move to. The snakes plan at the same time on a pool of
+//    threads, and nothing on the board changes until they are all done, so they all plan against the board as it was
+//    when the tick started.
+//  committing: on the arena's own thread, it is decided who dies, using only the board as it was when the tick
+//    started, then all the survivors move at once, eat, and the dead snakes are taken off the board.
+//A snake dies when it moves into a wall or a cell covered by a snake, or when it moves into the same cell as another
+//snake (head-on). A tail that moves on this tick does not count as covered, but a head never moves on, so two snakes
+//can never swap places. To keep out of head-on collisions every snake sees the cells next to the other heads as walls.
+//There is one food for every snake the arena started with, on random free cells.
+//
+//usage: java Arena [snakes] [size] [strategy] [threads] [ticks] [seed]
+public class Arena implements AutoCloseable {
+    public enum Death {WALL, SELF, OTHER, HEAD_ON, GAVE_UP}
+
+    private Grid grid;
+    private GameRandom random;
+    private ArenaPlayer[] players;
+    //null when the snakes plan on the arena's own thread
+    private ExecutorService pool;
+
+    //owner[id] is the index of the snake covering the cell, or -1. nextToHead[id] is the index of the snake whose head
+    //is next to the cell, -1 if there is none or -2 if there are several. Both only change while committing.
+    private int[] owner;
+    private int[] nextToHead;
+    private int[] food;
+    private int foodCount = 0;
+    private boolean[] isFood;
+    //the cells inside the walls not covered by a snake or food
+    private FreeCells freeCells;
+    //how many snakes want to move to every cell this tick
+    private int[] claims;
+
+    private int ticks = 0, alive;
+    private Map<Death, Integer> deaths = new EnumMap<>(Death.class);
+    private Histogram planNanos = new Histogram(), commitNanos = new Histogram();
+
+    public Arena(Grid grid, int snakes, String strategy, long seed, int threads) {
+        if (snakes < 1 || snakes * 2 > grid.getInteriorCellCount()) {
+            throw new IllegalArgumentException(snakes + " snakes do not fit in a " + grid.getXLength() + "x"
+                    + grid.getYLength() + " arena");
+        }
+        this.grid = grid;
+        random = new GameRandom(seed);
+        owner = new int[grid.getCellCount()];
+        Arrays.fill(owner, -1);
+        nextToHead = new int[grid.getCellCount()];
+        Arrays.fill(nextToHead, -1);
+        claims = new int[grid.getCellCount()];
+        isFood = new boolean[grid.getCellCount()];
+        food = new int[snakes];
+        freeCells = new FreeCells(grid.getCellCount());
+        for (int id = 0; id < grid.getCellCount(); id++) {
+            if (!grid.isWall(id)) {
+                freeCells.add(id);
+            }
+        }
+
+        players = new ArenaPlayer[snakes];
+        for (int i = 0; i < snakes; i++) {
+            Cell start = grid.getCell(freeCells.get(random.nextInt(freeCells.size())));
+            freeCells.remove(start.getId());
+            owner[start.getId()] = i;
+            players[i] = new ArenaPlayer(this, i, new Snake(grid, start.getX(), start.getY()), strategy);
+        }
+        alive = snakes;
+        markHeads(0);
+        placeFood();
+        if (threads > 1) {
+            pool = Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int snakes = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        Grid grid = Grid.parse(args.length > 1 ? args[1] : "64x64");
+        String strategy = args.length > 2 ? args[2] : "greedy";
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int maxTicks = args.length > 4 ? Integer.parseInt(args[4]) : 5000;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+
+        try (Arena arena = new Arena(grid, snakes, strategy, seed, threads)) {
+            long start = System.nanoTime();
+            while (arena.getTicks() < maxTicks && arena.tick()) {
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.println(arena.summarize(seconds, threads));
+        }
+    }
+
+    //plays one tick and returns whether any snake is still alive
+    public boolean tick() throws InterruptedException, ExecutionException {
+        long startTime = System.nanoTime();
+        Cell[] next = plan();
+        long planned = System.nanoTime();
+        commit(next);
+        commitNanos.record(System.nanoTime() - planned);
+        planNanos.record(planned - startTime);
+        ticks++;
+        return alive > 0;
+    }
+
+    private Cell[] plan() throws InterruptedException, ExecutionException {
+        Cell[] next = new Cell[players.length];
+        if (pool == null) {
+            for (ArenaPlayer player : players) {
+                if (player.isAlive()) {
+                    next[player.getIndex()] = player.plan();
+                }
+            }
+            return next;
+        }
+        List<Callable<Cell>> plans = new ArrayList<>();
+        List<ArenaPlayer> planning = new ArrayList<>();
+        for (ArenaPlayer player : players) {
+            if (player.isAlive()) {
+                plans.add(player::plan);
+                planning.add(player);
+            }
+        }
+        List<Future<Cell>> results = pool.invokeAll(plans);
+        for (int i = 0; i < results.size(); i++) {
+            next[planning.get(i).getIndex()] = results.get(i).get();
+        }
+        return next;
+    }
+
+    private void commit(Cell[] next) {
+        for (Cell cell : next) {
+            if (cell != null) {
+                claims[cell.getId()]++;
+            }
+        }
+        Death[] died = new Death[players.length];
+        for (ArenaPlayer player : players) {
+            int i = player.getIndex();
+            if (player.isAlive()) {
+                died[i] = getDeath(i, next);
+            }
+        }
+        for (Cell cell : next) {
+            if (cell != null) {
+                claims[cell.getId()] = 0;
+            }
+        }
+
+        markHeads(-1);
+        //every tail that moves on is cleared before any new head is set, as a head may move onto another snake's tail
+        for (ArenaPlayer player : players) {
+            int i = player.getIndex();
+            if (player.isAlive() && died[i] == null) {
+                Snake snake = player.getSnake();
+                Cell tail = snake.getSnakeTail();
+                snake.moveTo(next[i]);
+                if (snake.getSnakeTail() != tail) {
+                    owner[tail.getId()] = -1;
+                    freeCells.add(tail.getId());
+                }
+            }
+        }
+        for (ArenaPlayer player : players) {
+            int i = player.getIndex();
+            if (player.isAlive() && died[i] == null) {
+                int head = next[i].getId();
+                owner[head] = i;
+                freeCells.remove(head);
+                if (isFood[head]) {
+                    player.getSnake().grow();
+                    removeFood(head);
+                }
+            }
+        }
+
+        //the cells a dead snake covered may already belong to a snake that moved onto its tail
+        for (ArenaPlayer player : players) {
+            int i = player.getIndex();
+            if (died[i] != null) {
+                player.kill();
+                alive--;
+                deaths.merge(died[i], 1, Integer::sum);
+                for (int id : player.getSnake().getCells()) {
+                    if (owner[id] == i) {
+                        owner[id] = -1;
+                        freeCells.add(id);
+                    }
+                }
+            }
+        }
+        markHeads(0);
+        placeFood();
+    }
+
+    //with 0, marks the cells next to the head of every living snake in nextToHead, and with -1 clears them again
+    private void markHeads(int mark) {
+        for (ArenaPlayer player : players) {
+            if (player.isAlive()) {
+                int head = player.getSnake().getSnakeHead().getId();
+                for (int direction = 0; direction < 4; direction++) {
+                    int id = grid.getOpenNeighbour(head, direction);
+                    if (id < 0) {
+                        continue;
+                    }
+                    nextToHead[id] = mark < 0 ? -1 : nextToHead[id] == -1 ? player.getIndex() : -2;
+                }
+            }
+        }
+    }
+
+    //returns how the snake dies moving to its next cell, or null if it survives
+    private Death getDeath(int i, Cell[] next) {
+        if (next[i] == null) {
+            return Death.GAVE_UP;
+        }
+        int id = next[i].getId();
+        if (grid.isWall(id)) {
+            return Death.WALL;
+        }
+        if (owner[id] >= 0 && !isTailMovingOn(id, next)) {
+            return owner[id] == i ? Death.SELF : Death.OTHER;
+        }
+        if (claims[id] > 1) {
+            return Death.HEAD_ON;
+        }
+        return null;
+    }
+
+    private boolean isTailMovingOn(int id, Cell[] next) {
+        int i = owner[id];
+        Snake snake = players[i].getSnake();
+        return snake.getSnakeTail().getId() == id && snake.getSnakeTail() != snake.getSnakeHead()
+                && snake.getNewTails() == 0 && next[i] != null;
+    }
+
+    private void removeFood(int id) {
+        isFood[id] = false;
+        for (int i = 0; i < foodCount; i++) {
+            if (food[i] == id) {
+                food[i] = food[--foodCount];
+                return;
+            }
+        }
+    }
+
+    //puts food on random free cells until there is one for every snake the arena started with, or no free cell is left
+    private void placeFood() {
+        while (foodCount < food.length && freeCells.size() > 0) {
+            int id = freeCells.get(random.nextInt(freeCells.size()));
+            freeCells.remove(id);
+            isFood[id] = true;
+            food[foodCount++] = id;
+        }
+    }
+
+    //the food the fewest moves away from the snake's head, or null if there is none. Food next to another snake's head
+    //is left alone, as going for it risks a head-on collision. Only called while planning.
+    public Cell getClosestFood(int player) {
+        int head = players[player].getSnake().getSnakeHead().getId();
+        int closest = -1, closestDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < foodCount; i++) {
+            if (nextToHead[food[i]] != -1 && nextToHead[food[i]] != player) {
+                continue;
+            }
+            int distance = grid.getDistance(head, food[i]);
+            if (distance < closestDistance) {
+                closest = food[i];
+                closestDistance = distance;
+            }
+        }
+        return closest < 0 ? null : grid.getCell(closest);
+    }
+
+    //the index of the snake covering the cell, or -1
+    public int getOwner(int id) {
+        return owner[id];
+    }
+
+    //the index of the snake whose head is next to the cell, -1 if there is none or -2 if there are several
+    public int getNextToHead(int id) {
+        return nextToHead[id];
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    public int getAlive() {
+        return alive;
+    }
+
+    public ArenaPlayer[] getPlayers() {
+        return players;
+    }
+
+    public Map<Death, Integer> getDeaths() {
+        return deaths;
+    }
+
+    public String summarize(double seconds, int threads) {
+        int longest = 0;
+        long total = 0;
+        for (ArenaPlayer player : players) {
+            int length = player.getSnake().getBodyLength() + 2;
+            longest = Math.max(longest, length);
+            if (player.isAlive()) {
+                total += length;
+            }
+        }
+        return String.format("%d snakes on %dx%d with %d threads: %d ticks in %.2f s (%.0f ticks/s), plan mean %.3f ms "
+                        + "p99 %.3f ms, commit mean %.1f us, alive %d (total length %d), longest %d, deaths %s",
+                players.length, grid.getXLength(), grid.getYLength(), threads, ticks, seconds, ticks / seconds,
+                planNanos.getMean() / 1e6, planNanos.getPercentile(99) / 1e6, commitNanos.getMean() / 1e3, alive,
+                total, longest, deaths);
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
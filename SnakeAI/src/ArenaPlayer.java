@@ -0,0 +1,105 @@
+//An ArenaPlayer is one snake in an Arena together with everything it sees: its own snake, the food closest to its
+//head, and every other snake and the cells next to their heads as walls. Its strategy has its own Pathfinder, so
+//players that plan at the same time on different threads never write to anything they share. The arena's board is
+//only read while the players plan.
+public class ArenaPlayer implements GameState {
+    private Arena arena;
+    private int index;
+    private Snake snake;
+    private MoveStrategy strategy;
+    private Cell food;
+    private boolean alive = true;
+
+    public ArenaPlayer(Arena arena, int index, Snake snake, String strategy) {
+        this.arena = arena;
+        this.index = index;
+        this.snake = snake;
+        this.strategy = MoveStrategies.create(strategy, this);
+    }
+
+    //picks the cell the snake wants to move to this tick, or null if it gives up
+    public Cell plan() {
+        food = arena.getClosestFood(index);
+        if (food == null) {
+            //there is no food left to go for, so the snake just tries to stay alive
+            food = snake.getSnakeTail();
+        }
+        return strategy.getNextCell(this);
+    }
+
+    @Override
+    public Snake getSnake() {
+        return snake;
+    }
+
+    @Override
+    public Cell getFood() {
+        return food;
+    }
+
+    @Override
+    public Cell getCell(int x, int y) {
+        return arena.getGrid().getCell(x, y);
+    }
+
+    @Override
+    public Cell getCell(int id) {
+        return arena.getGrid().getCell(id);
+    }
+
+    @Override
+    public boolean isInLegalCell(Cell cell) {
+        return !snake.isOccupied(cell.getId()) && !isWall(cell.getId());
+    }
+
+    //the other snakes are in the way just like walls, and so are the cells their heads may move to next
+    @Override
+    public boolean isWall(int id) {
+        int owner = arena.getOwner(id), nextToHead = arena.getNextToHead(id);
+        return arena.getGrid().isWall(id) || (owner >= 0 && owner != index)
+                || (nextToHead != -1 && nextToHead != index);
+    }
+
+    @Override
+    public int getXLength() {
+        return arena.getGrid().getXLength();
+    }
+
+    @Override
+    public int getYLength() {
+        return arena.getGrid().getYLength();
+    }
+
+    @Override
+    public int getMoves() {
+        return arena.getTicks();
+    }
+
+    @Override
+    public Grid getGrid() {
+        return arena.getGrid();
+    }
+
+    @Override
+    public PlannerMetrics getMetrics() {
+        return PlannerMetrics.NONE;
+    }
+
+    //the other snakes move the walls every tick, so answers for a board state cannot be remembered
+    @Override
+    public SafetyCache getSafetyCache() {
+        return SafetyCache.NONE;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isAlive() {
+        return alive;
+    }
+
+    void kill() {
+        alive = false;
+    }
+}
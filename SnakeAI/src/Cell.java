@@ -1,12 +1,12 @@
 public class Cell {
     private int x, y;
-    //gScore is amount of moves taken to get to that cell from another cell(used in pathfinding).
-    //fScore is the absolute distance from the cell to the food
-    private int gScore, fScore;
+    //id is the cell's index in the game grid, x * yLength + y. The pathfinder uses it to index its score arrays.
+    private int id;
 
-    public Cell(int x, int y) {
+    public Cell(int x, int y, int id) {
         this.x = x;
         this.y = y;
+        this.id = id;
     }
 
     public int getX() {
@@ -17,20 +17,8 @@ public class Cell {
         return y;
     }
 
-    public void setGScore(int g) {
-        gScore = g;
-    }
-
-    public void setFScore(int f) {
-        fScore = f;
-    }
-
-    public int getGScore() {
-        return gScore;
-    }
-
-    public int getFScore() {
-        return fScore;
+    public int getId() {
+        return id;
     }
 
     public int getDistanceTo(Cell goal) {
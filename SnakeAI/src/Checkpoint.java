@@ -0,0 +1,166 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+//A Checkpoint file holds a GameSnapshot, so that a game can be resumed later (see Checkpointer and Main --resume).
+//It is made up of a header:
+//  magic "SNKC", version, xLength, yLength, wall hash (see Grid.getWallHash), outcome, moves, newTails, food, random
+//  state, snake length, and the ids of the snake's tail and head,
+//followed by the body from the cell after the tail to the cell before the head, as the direction (see
+//Grid.getNeighbour) from the cell before to every cell. Every direction is 2 bits, filled from the lowest bit of each
+//byte up, so even a snake covering a large board only takes a quarter of a byte per cell.
+//The head is written on its own as it is on the tail at the very start of a game, which no direction can describe.
+//Of a game that ended with the snake running into a wall, the head is on the wall.
+//A checkpoint is written to a file next to the real one first, which then replaces the real one, so a crash while
+//writing leaves the last checkpoint as it was.
+public class Checkpoint {
+    static final int MAGIC = 0x534E4B43;
+    static final byte VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 1 + 4 + 4 + 8 + 1 + 4 + 4 + 4 + 8 + 4 + 4 + 4;
+
+    //the amount of bytes the snapshot takes in a checkpoint
+    public static int getSize(GameSnapshot snapshot) {
+        return HEADER_BYTES + (Math.max(0, snapshot.getLength() - 2) * 2 + 7) / 8;
+    }
+
+    //puts the snapshot into the buffer, which needs at least getSize bytes left
+    public static void encode(GameSnapshot snapshot, ByteBuffer buffer) {
+        int length = snapshot.getLength();
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.putInt(snapshot.getXLength());
+        buffer.putInt(snapshot.getYLength());
+        buffer.putLong(snapshot.getWallHash());
+        buffer.put((byte) snapshot.getOutcome().ordinal());
+        buffer.putInt(snapshot.getMoves());
+        buffer.putInt(snapshot.getNewTails());
+        buffer.putInt(snapshot.getFood());
+        buffer.putLong(snapshot.getRandomState());
+        buffer.putInt(length);
+        buffer.putInt(snapshot.getCell(0));
+        buffer.putInt(snapshot.getCell(length - 1));
+
+        int yLength = snapshot.getYLength();
+        int bits = 0, count = 0;
+        for (int i = 1; i < length - 1; i++) {
+            bits |= getDirection(snapshot.getCell(i) - snapshot.getCell(i - 1), yLength) << count;
+            count += 2;
+            if (count == 8) {
+                buffer.put((byte) bits);
+                bits = 0;
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            buffer.put((byte) bits);
+        }
+    }
+
+    //the direction that goes from one cell to the next by adding delta to its id
+    private static int getDirection(int delta, int yLength) {
+        if (delta == yLength) {
+            return Grid.RIGHT;
+        } else if (delta == -yLength) {
+            return Grid.LEFT;
+        } else if (delta == 1) {
+            return Grid.DOWN;
+        } else if (delta == -1) {
+            return Grid.UP;
+        }
+        throw new IllegalArgumentException("The snake's body is not made of neighbouring cells");
+    }
+
+    //writes the snapshot to the file, using the buffer, which is cleared first. The buffer needs at least getSize
+    //bytes of room.
+    public static void write(GameSnapshot snapshot, Path file, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        encode(snapshot, buffer);
+        buffer.flip();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static void write(GameSnapshot snapshot, Path file) throws IOException {
+        write(snapshot, file, ByteBuffer.allocate(getSize(snapshot)));
+    }
+
+    public static GameSnapshot read(Path file) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            return decode(data, file);
+        } catch (BufferUnderflowException e) {
+            throw new IOException(file + " is a checkpoint that was cut off");
+        }
+    }
+
+    private static GameSnapshot decode(ByteBuffer data, Path file) throws IOException {
+        if (data.getInt() != MAGIC) {
+            throw new IOException(file + " is not a checkpoint");
+        }
+        if (data.get() != VERSION) {
+            throw new IOException(file + " is a checkpoint of an unknown version");
+        }
+        int xLength = data.getInt(), yLength = data.getInt();
+        long wallHash = data.getLong();
+        int outcome = data.get();
+        int moves = data.getInt(), newTails = data.getInt(), food = data.getInt();
+        long randomState = data.getLong();
+        int length = data.getInt();
+        if (xLength < 3 || yLength < 3 || (long) xLength * yLength > Integer.MAX_VALUE / 4 || outcome < 0
+                || outcome >= GameEngine.Outcome.values().length || length < 2
+                || length > (long) (xLength - 2) * (yLength - 2) + 1) {
+            throw new IOException(file + " is a broken checkpoint");
+        }
+
+        int[] steps = new int[4];
+        steps[Grid.RIGHT] = yLength;
+        steps[Grid.LEFT] = -yLength;
+        steps[Grid.DOWN] = 1;
+        steps[Grid.UP] = -1;
+        int[] cells = new int[length];
+        cells[0] = data.getInt();
+        cells[length - 1] = data.getInt();
+        int bits = 0;
+        for (int i = 1; i < length - 1; i++) {
+            if ((i - 1) % 4 == 0) {
+                bits = data.get();
+            }
+            cells[i] = cells[i - 1] + steps[bits & 3];
+            bits >>>= 2;
+            if (!isInside(cells[i], xLength, yLength)) {
+                throw new IOException(file + " is a broken checkpoint");
+            }
+        }
+        //the head of a snake that ran into a wall is on the wall
+        int head = cells[length - 1];
+        boolean headOnWall = outcome == GameEngine.Outcome.HIT_WALL.ordinal() && head >= 0
+                && head < xLength * yLength;
+        if (!isInside(cells[0], xLength, yLength) || (!headOnWall && !isInside(head, xLength, yLength))
+                || !isInside(food, xLength, yLength)) {
+            throw new IOException(file + " is a broken checkpoint");
+        }
+        return new GameSnapshot(xLength, yLength, wallHash, cells, newTails, food, randomState, moves,
+                GameEngine.Outcome.values()[outcome]);
+    }
+
+    //whether the id is of a cell inside the border walls
+    private static boolean isInside(int id, int xLength, int yLength) {
+        int x = id / yLength, y = id % yLength;
+        return id >= 0 && x > 0 && x < xLength - 1 && y > 0 && y < yLength - 1;
+    }
+}
@@ -0,0 +1,106 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+//The Checkpointer writes a Checkpoint of a game every so often while it is played, so that a long game is not lost
+//when the program crashes or the game is stopped. The only work done on the thread playing the game is taking a
+//snapshot, which copies the cells the snake covers into one array. The snapshot is written on a thread of its own. If
+//the last one is still being written when the next one is taken, the one waiting to be written is replaced, so a slow
+//disk never holds up the game and snapshots never pile up.
+public class Checkpointer implements Closeable {
+    private GameEngine engine;
+    private Path file;
+    private long intervalNanos;
+    private long nextCheckpoint;
+    private boolean closed = false;
+
+    //the snapshot waiting to be written, if any
+    private final AtomicReference<GameSnapshot> pending = new AtomicReference<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "checkpointer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    //only touched by the writer thread, and grown when a snapshot does not fit
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 12);
+    private volatile IOException failure;
+    private volatile int written = 0;
+
+    //checkpoints the game every intervalMillis, starting with the game as it is now
+    public Checkpointer(GameEngine engine, Path file, long intervalMillis) {
+        this.engine = engine;
+        this.file = file;
+        this.intervalNanos = intervalMillis * 1_000_000L;
+        nextCheckpoint = System.nanoTime();
+    }
+
+    //has to be called on the thread playing the game after every move
+    public void moved() {
+        long now = System.nanoTime();
+        if (now - nextCheckpoint >= 0) {
+            nextCheckpoint = now + intervalNanos;
+            offer(engine.snapshot());
+        }
+    }
+
+    private void offer(GameSnapshot snapshot) {
+        if (pending.getAndSet(snapshot) == null) {
+            writer.execute(this::writePending);
+        }
+    }
+
+    private void writePending() {
+        GameSnapshot snapshot = pending.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+        int size = Checkpoint.getSize(snapshot);
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocateDirect(Math.max(size, buffer.capacity() * 2));
+        }
+        try {
+            Checkpoint.write(snapshot, file, buffer);
+            written++;
+        } catch (IOException e) {
+            //the game goes on, and the next checkpoint tries again
+            if (failure == null) {
+                failure = e;
+            }
+        }
+    }
+
+    //the amount of checkpoints written so far
+    public int getWritten() {
+        return written;
+    }
+
+    //writes a last checkpoint of the game as it is now, which can be a game that is over, and waits for it. It is then
+    //read back, so a game that cannot be resumed from its checkpoint is found out while the game is still there. Has
+    //to be called on the thread playing the game. Throws the first error a checkpoint ran into, if any.
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        GameSnapshot last = engine.snapshot();
+        offer(last);
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        if (!Checkpoint.read(file).equals(last)) {
+            throw new IOException(file + " does not read back as the game that was written to it");
+        }
+    }
+}
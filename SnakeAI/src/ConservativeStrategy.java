@@ -0,0 +1,14 @@
+//Uses a space-conserving pathfinding algorithm which tries to fill up space before eating the food to prepare for the
+//future, see Pathfinder.getNextCellConservatively
+public class ConservativeStrategy implements MoveStrategy {
+    private Pathfinder pathFinder;
+
+    public ConservativeStrategy(Pathfinder pathFinder) {
+        this.pathFinder = pathFinder;
+    }
+
+    @Override
+    public Cell getNextCell(GameState game) {
+        return pathFinder.getNextCellConservatively(game.getSnake().getSnakeHead(), game.getFood());
+    }
+}
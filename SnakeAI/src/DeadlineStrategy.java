@@ -0,0 +1,227 @@
+//The DeadlineStrategy lets the base strategy plan on a thread of its own and never waits for it longer than the
+//deadline, so however long a move takes to plan late in the game, the game keeps moving at its own pace.
+//The planner has its own engine (the mirror), which it keeps in the state the game will be in after the moves it has
+//planned so far, so it plans ahead while the game is still waiting to make the earlier ones (at most PIPELINE moves
+//ahead). It can only plan as far as the next food eaten, since where the food spawns next is not known until the game
+//has eaten it, and then it waits for the game to tell it.
+//If no move is planned for the game's state by the deadline, the game makes a cheap fallback move: the free
+//neighbour furthest from the tail that the tail can still be reached from, or the tail itself if the snake is next to
+//it, found with one flood fill. The planner is then out of step with the game, so the mirror is put back into the
+//game's state from a snapshot and planning goes on from there.
+//The game's safety cache is only used by the planner. The game's metrics get how long every move waited for the
+//planner and every missed deadline, but not the planner's searches, as they are made on another thread.
+public class DeadlineStrategy implements MoveStrategy, AutoCloseable {
+    private static final int PIPELINE = 8;
+
+    private GameEngine game;
+    private long deadlineNanos;
+    private RegionMap regions;
+    private Thread planner;
+
+    //only used by the planner thread
+    private GameEngine mirror;
+    private MoveStrategy base;
+    private Cell forced;
+    private Histogram planNanos = new Histogram();
+
+    //only used by the thread playing the game
+    private boolean inSync = false;
+    private boolean ateLast = false;
+    private long moves = 0, misses = 0;
+    private Histogram waitNanos = new Histogram();
+
+    //guarded by this. A restore or a food for the planner waits in resync and food. planned holds the ids of the cells
+    //planned for the game's next moves, in order, from plannedHead on, or -1 where the base strategy gave up.
+    //epoch goes up on every restore, so a move planned before it is thrown away.
+    private GameSnapshot resync;
+    private int food = -1;
+    private int[] planned = new int[PIPELINE];
+    private int plannedHead = 0, plannedCount = 0;
+    private int epoch = 0;
+    private boolean waitingForFood = false, ended = false, closed = false;
+
+    //baseName is the strategy planning the moves, as accepted by MoveStrategies.create
+    public DeadlineStrategy(GameEngine game, String baseName, long deadlineNanos) {
+        this.game = game;
+        this.deadlineNanos = deadlineNanos;
+        regions = new RegionMap(game);
+        mirror = new GameEngine(game.getGrid(), new GameRandom(0));
+        mirror.setSafetyCache(game.getSafetyCache());
+        mirror.setStrategy(state -> forced);
+        base = MoveStrategies.create(baseName, mirror);
+
+        planner = new Thread(this::plan, "planner");
+        planner.setDaemon(true);
+        planner.start();
+    }
+
+    @Override
+    public Cell getNextCell(GameState state) {
+        long start = System.nanoTime();
+        long deadline = start + deadlineNanos;
+        Cell next = null;
+        boolean missed = false;
+        synchronized (this) {
+            if (!inSync) {
+                resync = game.snapshot();
+                epoch++;
+                plannedCount = 0;
+                food = -1;
+                inSync = true;
+                notifyAll();
+            } else if (ateLast) {
+                food = game.getFood().getId();
+                notifyAll();
+            }
+            long wait;
+            while (plannedCount == 0 && (wait = deadline - System.nanoTime()) > 0) {
+                try {
+                    wait(wait / 1_000_000, (int) (wait % 1_000_000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (plannedCount > 0) {
+                int id = planned[plannedHead];
+                plannedHead = (plannedHead + 1) % PIPELINE;
+                plannedCount--;
+                next = id < 0 ? null : game.getCell(id);
+                //there is room to plan another move ahead
+                notifyAll();
+            } else {
+                missed = true;
+            }
+        }
+
+        if (missed) {
+            next = getFallback();
+            inSync = false;
+            misses++;
+            game.getMetrics().deadlineMissed();
+        }
+        ateLast = next == game.getFood();
+        moves++;
+        long waited = System.nanoTime() - start;
+        waitNanos.record(waited);
+        game.getMetrics().moveWaited(waited);
+        return next;
+    }
+
+    //the free neighbour furthest from the tail that can still reach it, or the tail if the snake can follow it
+    private Cell getFallback() {
+        Snake snake = game.getSnake();
+        Grid grid = game.getGrid();
+        int head = snake.getSnakeHead().getId(), tail = snake.getSnakeTail().getId();
+        regions.reset(snake);
+        int best = -1, bestDistance = -1, free = -1;
+        for (int direction = 0; direction < 4; direction++) {
+            int neighbour = grid.getOpenNeighbour(head, direction);
+            if (neighbour < 0 || !regions.isFree(neighbour)) {
+                continue;
+            }
+            free = neighbour;
+            int distance = regions.getDistanceToTail(neighbour);
+            if (distance > bestDistance) {
+                best = neighbour;
+                bestDistance = distance;
+            }
+        }
+        if (best >= 0) {
+            return game.getCell(best);
+        }
+        if (grid.getDistance(head, tail) == 1 && snake.getNewTails() == 0) {
+            return snake.getSnakeTail();
+        }
+        //with the tail out of reach any free neighbour is the best there is, and without one the snake has to die
+        return game.getCell(free >= 0 ? free : grid.getNeighbour(head, 0));
+    }
+
+    //the planner thread: plans a move whenever it is in step with the game and not too far ahead of it
+    private void plan() {
+        while (true) {
+            GameSnapshot restore;
+            int newFood, planEpoch;
+            synchronized (this) {
+                while (!closed && resync == null && (waitingForFood ? food < 0 : ended || plannedCount == PIPELINE)) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+                restore = resync;
+                newFood = food;
+                resync = null;
+                food = -1;
+                waitingForFood = false;
+                ended = false;
+                planEpoch = epoch;
+            }
+            if (restore != null) {
+                mirror.restore(restore);
+            } else if (newFood >= 0) {
+                mirror.setFood(mirror.getCell(newFood));
+            }
+
+            long start = System.nanoTime();
+            Cell next = base.getNextCell(mirror);
+            planNanos.record(System.nanoTime() - start);
+            boolean eats = next == mirror.getFood();
+            synchronized (this) {
+                if (epoch != planEpoch) {
+                    continue;
+                }
+                planned[(plannedHead + plannedCount) % PIPELINE] = next == null ? -1 : next.getId();
+                plannedCount++;
+                waitingForFood = eats;
+                ended = next == null;
+                notifyAll();
+            }
+            if (next != null) {
+                forced = next;
+                if (!mirror.step()) {
+                    //the game ends with this move, unless the planner is out of step and about to be put back
+                    synchronized (this) {
+                        ended = true;
+                    }
+                }
+            }
+        }
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    //stops the planner thread and waits for it to finish the move it is planning
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            planner.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //only to be called once the strategy is closed, as the planning times are written by the planner thread
+    @Override
+    public String toString() {
+        return String.format("deadline %.3f ms: %d moves, %d missed (%.2f%%), waited p50 %.3f ms p99 %.3f ms max "
+                        + "%.3f ms, planned p50 %.3f ms p99 %.3f ms max %.3f ms",
+                deadlineNanos / 1e6, moves, misses, moves == 0 ? 0 : 100.0 * misses / moves,
+                waitNanos.getPercentile(50) / 1e6, waitNanos.getPercentile(99) / 1e6, waitNanos.getMax() / 1e6,
+                planNanos.getPercentile(50) / 1e6, planNanos.getPercentile(99) / 1e6, planNanos.getMax() / 1e6);
+    }
+}
@@ -0,0 +1,87 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//DistanceFields knows how many moves it takes to get from any cell to a goal cell going around the walls, but not
+//around the snake. That is the exact distance on a board where only the walls are in the way and never more than the
+//real distance, so it is the best heuristic A* can get for free. On a board without inner walls it is the same as the
+//distance between the cells' coordinates (see Grid.getDistance), but on a map with walls inside the coordinates lead
+//the search into every dead end on the way.
+//The distances to a goal (its field) are found with one breadth first search from the goal the first time they are
+//needed, and kept for the goals used most recently, taking at most the memory the fields were given. The array of the
+//field used the longest time ago is reused for the next new one. They belong to one planner, as they are not thread
+//safe.
+public class DistanceFields {
+    private Grid grid;
+    //the distance of a cell the goal cannot be reached from, more than any path on the board
+    private final int unreachable;
+    private final LinkedHashMap<Integer, int[]> fields;
+    //the array of the last field thrown out, to be reused
+    private int[] spare;
+    private int[] queue;
+    private long hits = 0, misses = 0;
+
+    //keeps as many fields as fit in maxBytes, but always at least one
+    public DistanceFields(Grid grid, long maxBytes) {
+        this.grid = grid;
+        unreachable = grid.getCellCount();
+        queue = new int[grid.getCellCount()];
+        int capacity = (int) Math.max(1, Math.min(1 << 20, maxBytes / (4L * grid.getCellCount())));
+        fields = new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+                if (size() > capacity) {
+                    spare = eldest.getValue();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    //returns field[id], the amount of moves from the cell to the goal going around the walls, or more moves than any
+    //path has if the goal cannot be reached. The array belongs to the fields and must not be changed, and is only
+    //valid until the next call.
+    public int[] get(int goal) {
+        int[] field = fields.get(goal);
+        if (field != null) {
+            hits++;
+            return field;
+        }
+        misses++;
+        field = spare != null ? spare : new int[grid.getCellCount()];
+        spare = null;
+        search(goal, field);
+        fields.put(goal, field);
+        return field;
+    }
+
+    private void search(int goal, int[] field) {
+        Arrays.fill(field, unreachable);
+        int head = 0, tail = 0;
+        queue[tail++] = goal;
+        field[goal] = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbour = grid.getOpenNeighbour(current, direction);
+                if (neighbour >= 0 && field[neighbour] == unreachable) {
+                    field[neighbour] = field[current] + 1;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public int getSize() {
+        return fields.size();
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.Arrays;
+
+//The FreeCells are the cells inside the walls that the snake does not cover. They are counted in a Fenwick tree
+//(binary indexed tree) over the cell ids, so adding and removing a cell and finding the i-th free cell in the order of
+//their ids all take O(log cells). The i-th free cell only depends on which cells are free, not on the order they were
+//freed in, so the same random number picks the same cell for the food however the board got the way it is, even
+//after GameEngine.restore.
+public class FreeCells {
+    //tree[i] is the amount of free cells with ids from i - (i & -i) to i - 1, so the tree starts at 1
+    private int[] tree;
+    //a bit for every free cell
+    private long[] free;
+    //the highest power of two no more than the amount of cells, where get starts looking
+    private int topBit;
+    private int size = 0;
+
+    public FreeCells(int cellCount) {
+        tree = new int[cellCount + 1];
+        free = new long[(cellCount + 63) / 64];
+        topBit = Integer.highestOneBit(cellCount);
+    }
+
+    public void add(int id) {
+        if (contains(id)) {
+            return;
+        }
+        free[id >>> 6] |= 1L << id;
+        size++;
+        for (int i = id + 1; i < tree.length; i += i & -i) {
+            tree[i]++;
+        }
+    }
+
+    public void remove(int id) {
+        if (!contains(id)) {
+            return;
+        }
+        free[id >>> 6] &= ~(1L << id);
+        size--;
+        for (int i = id + 1; i < tree.length; i += i & -i) {
+            tree[i]--;
+        }
+    }
+
+    public boolean contains(int id) {
+        return (free[id >>> 6] & (1L << id)) != 0;
+    }
+
+    //returns the i-th free cell, counting from the one with the lowest id
+    public int get(int i) {
+        //goes down the tree skipping every range of cells with no more than i free cells left in it, which ends on the
+        //last id before the cell
+        int position = 0;
+        for (int bit = topBit; bit > 0; bit >>>= 1) {
+            int next = position + bit;
+            if (next < tree.length && tree[next] <= i) {
+                position = next;
+                i -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(tree, 0);
+        Arrays.fill(free, 0);
+        size = 0;
+    }
+}
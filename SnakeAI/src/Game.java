@@ -4,162 +4,169 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.awt.image.BufferedImage;
 
+//The Game is the window. The game itself is played by a Simulation on its own thread, and the window only draws the
+//frames it publishes: every cell that changed is drawn into an image that keeps the whole board, and the window shows
+//that image. How often the window looks for a new frame does not depend on how fast the game moves.
+//In turbo mode the snake moves as fast as the AI can plan, and the window shows the moves per second and the average
+//time the AI takes per move in the top left corner.
 public class Game implements ActionListener, KeyListener {
 
-    private static Cell[][] gameMap;
-    private static Renderer renderer;
-    private Pathfinder pathFinder;
+    private Renderer renderer;
+    private Simulation simulation;
     private Timer timer;
-    private Snake snake;
-    private Cell food;
 
-    private static final int WIDTH = 1200, HEIGHT = 800, CELLSIZE = 80;
-
-    //xLength and yLength is the number of cells per row/column
-    private int xLength = WIDTH / CELLSIZE;
-    private int yLength = HEIGHT / CELLSIZE;
-    //ticks is used as a counter
-    private int ticks = 1;
+    //the window is at most this big. Cells are drawn as big as fits, but at least 1 pixel.
+    private static final int MAX_WIDTH = 1200, MAX_HEIGHT = 800;
+    //the window is redrawn at most once every FRAME_MILLIS, and the snake moves once every MOVE_MILLIS
+    private static final int FRAME_MILLIS = 16, MOVE_MILLIS = 50;
+    private static final Color WALL_COLOR = Color.darkGray.darker().darker();
+    private final int width, height, cellSize;
+    //cells are drawn with a gap around them, unless they are too small for it
+    private final int padding;
+    private final Font gameOverFont;
+    private static final Font STATS_FONT = new Font("Monospaced", Font.PLAIN, 12);
+    //the stats are worked out again every STATS_MILLIS from the moves and time since the last time
+    private static final int STATS_MILLIS = 500;
+
+    private Grid grid;
+    //the whole board as drawn so far, only touched on the event dispatch thread
+    private BufferedImage image;
+    //the last frame taken from the simulation
+    private GameFrame frame;
+
+    private boolean turbo;
+    private String stats = "";
+    private long statsTime;
+    private int statsMoves;
+    private long statsStepNanos;
+
+    public Game(GameEngine engine, boolean turbo, Runnable gameOverListener) {
+        this(engine, turbo, () -> {
+        }, gameOverListener);
+    }
 
-    private boolean humanControls;
-    private static boolean gameOver = false;
+    //shows the engine, which must not be used by anything else from now on. moveListener is run on the simulation
+    //thread after every move, and gameOverListener once the game is over.
+    public Game(GameEngine engine, boolean turbo, Runnable moveListener, Runnable gameOverListener) {
+        this.grid = engine.getGrid();
+        this.turbo = turbo;
+        cellSize = Math.max(1, Math.min(MAX_WIDTH / grid.getXLength(), MAX_HEIGHT / grid.getYLength()));
+        width = grid.getXLength() * cellSize;
+        height = grid.getYLength() * cellSize;
+        padding = cellSize >= 4 ? 1 : 0;
+        gameOverFont = new Font("Arial", Font.BOLD, Math.min(100, width / 8));
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+        simulation = new Simulation(engine, turbo ? 0 : MOVE_MILLIS * 1_000_000L);
+        simulation.setMoveListener(moveListener);
+        simulation.setGameOverListener(gameOverListener);
 
-    public Game() {
         JFrame jframe = new JFrame();
         renderer = new Renderer();
-        timer = new Timer(10, this);
+        renderer.setPreferredSize(new Dimension(width, height));
+        timer = new Timer(FRAME_MILLIS, this);
 
 
         jframe.add(renderer);
         jframe.addKeyListener(this);
-        jframe.setSize(WIDTH, HEIGHT);
+        jframe.pack();
         jframe.setResizable(false);
         jframe.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         jframe.setVisible(true);
 
-        //initializes the game grid of Cells
-        gameMap = new Cell[xLength][yLength];
-
-        for (int x = 0; x < xLength; x++) {
-            for (int y = 0; y < yLength; y++) {
-                gameMap[x][y] = new Cell(x, y);
-            }
-        }
-
-        snake = new Snake(xLength / 2, yLength / 2);
-        pathFinder = new Pathfinder(this, snake);
-
-        moveFood();
-
-        //switch to true to have human controls
-        humanControls = false;
-
+        statsTime = System.nanoTime();
+        simulation.start();
         timer.start();
     }
 
     @Override
     public void actionPerformed(ActionEvent e) {
-        if (!gameOver) {
-            if (ticks % 5 == 0) {
-                if (humanControls) {
-                    snake.move();
-                } else {
-                    //AI controlled
-                    //When the snake's length is less than half the total amount of cells in the game grid, use a
-                    //greedy pathfinding algorithm which finds the best path directly to the food.
-                    if (snake.getBodyLength() < (xLength - 2) * (yLength - 2) / 2) {
-                        snake.addNextCellByAI(pathFinder.getNextCell(snake.snakeHead, food));
-                    } else {
-                        //when the snake's length is more than half the total amount of cells in the game grid,
-                        //the AI uses a space-conserving pathfinding algorithm which tries to fill up space before
-                        //eating the food to prepare for the future
-                        snake.addNextCellByAI(pathFinder.getNextCellConservatively(snake.snakeHead, food));
-                    }
-                    snake.moveAI();
-                }
-            }
-
-            if (food == snake.snakeHead) {
-                moveFood();
-                snake.grow();
-            }
-
-            if (!isInLegalCell(snake.snakeHead) && snake.getBodyLength() > 0) {
-                gameOver = true;
-            }
-
-            ticks++;
+        GameFrame next = simulation.pollFrame();
+        if (next == null) {
+            return;
         }
+        frame = next;
+
+        //draws the changed cells into the image and only repaints those parts of the window
+        Graphics g = image.getGraphics();
+        for (int i = 0; i < frame.getChangedCount(); i++) {
+            int id = frame.getCell(i);
+            paintCell(grid.getCell(id), frame.getKind(i), g);
+            renderer.repaint(grid.getCell(id).getX() * cellSize, grid.getCell(id).getY() * cellSize, cellSize,
+                    cellSize);
+        }
+        g.dispose();
 
-        renderer.repaint();
+        if (turbo) {
+            updateStats();
+        }
+        if (frame.isGameOver()) {
+            timer.stop();
+            renderer.repaint();
+        }
     }
 
-    public void repaint(Graphics g) {
-        //paints background
-        g.setColor(Color.darkGray.darker().darker());
-        g.fillRect(0, 0, WIDTH, HEIGHT);
-
-        g.setColor(Color.black);
-        g.fillRect(CELLSIZE, CELLSIZE, WIDTH - 2 * CELLSIZE, HEIGHT - 2 * CELLSIZE);
-
-        //paints the snake
-        g.setColor(Color.green);
-        for (Cell body : snake.getBody()) {
-            paintCell(body, g);
+    private void updateStats() {
+        long now = System.nanoTime();
+        if (now - statsTime < STATS_MILLIS * 1_000_000L && !frame.isGameOver()) {
+            return;
         }
-        g.setColor(Color.orange);
-        paintCell(snake.snakeHead, g);
+        int moves = frame.getMoves() - statsMoves;
+        double movesPerSecond = moves * 1e9 / (now - statsTime);
+        double millisPerMove = moves == 0 ? 0 : (frame.getStepNanos() - statsStepNanos) / 1e6 / moves;
+        stats = String.format("%,.0f moves/s  %.3f ms/move  length %d", movesPerSecond, millisPerMove,
+                frame.getLength());
+        statsTime = now;
+        statsMoves = frame.getMoves();
+        statsStepNanos = frame.getStepNanos();
+        renderer.repaint(0, 0, width, STATS_FONT.getSize() + 8);
+    }
 
-        g.setColor(Color.red.darker());
-        paintCell(snake.getSnakeTail(), g);
+    public void repaint(Graphics g) {
+        g.drawImage(image, 0, 0, null);
 
-        //paints food
-        g.setColor(Color.red);
-        paintCell(food, g);
+        if (turbo) {
+            g.setFont(STATS_FONT);
+            g.setColor(Color.white);
+            g.drawString(stats, 4, STATS_FONT.getSize() + 2);
+        }
 
         //prints game over screen
-        if (gameOver) {
-            g.setColor(Color.gray);
-            paintCell(snake.snakeHead, g);
-
-            g.setFont(new Font("Arial", 1, 100));
+        if (frame != null && frame.isGameOver()) {
+            g.setFont(gameOverFont);
             g.setColor(Color.red);
-            g.drawString("Game Over", WIDTH / 4, HEIGHT / 2 - 50);
+            g.drawString("Game Over", width / 4, height / 2);
         }
     }
 
-    public void paintCell(Cell cell, Graphics g) {
-        //fills a cell as a rectangle with padding
-        g.fillRect(cell.getX() * CELLSIZE + 1, cell.getY() * CELLSIZE + 1, CELLSIZE - 2, CELLSIZE - 2);
-    }
-
-    public void moveFood() {
-        //repeatedly moves the food's location until its valid. The food cannot spawn on the snake.
-        do {
-            food = getCell((int) (Math.random() * (xLength - 1)), (int) (Math.random() * (yLength - 1)));
-        } while (!isInLegalCell(food) && food != snake.snakeHead);
-    }
-
-    public boolean isInLegalCell(Cell cell) {
-        //cannot touch the snake's body and tail
-        for (Cell body : snake.getBody()) {
-            if (cell == body) {
-                return false;
-            }
+    public void paintCell(Cell cell, GameFrame.Kind kind, Graphics g) {
+        int x = cell.getX() * cellSize, y = cell.getY() * cellSize;
+        g.setColor(grid.isWall(cell.getId()) ? WALL_COLOR : Color.black);
+        g.fillRect(x, y, cellSize, cellSize);
+
+        switch (kind) {
+            case BODY:
+                g.setColor(Color.green);
+                break;
+            case HEAD:
+                g.setColor(Color.orange);
+                break;
+            case TAIL:
+                g.setColor(Color.red.darker());
+                break;
+            case FOOD:
+                g.setColor(Color.red);
+                break;
+            case DEAD:
+                g.setColor(Color.gray);
+                break;
+            default:
+                return;
         }
-        if (cell == snake.getSnakeTail()) {
-            return false;
-        }
-        //cannot be out of bounds
-        if (cell.getX() == 0 || cell.getX() == xLength - 1 || cell.getY() == 0 || cell.getY() == yLength - 1) {
-            return false;
-        }
-        return true;
-    }
-
-    public static Cell getCell(int x, int y) {
-        return gameMap[x][y];
+        //fills a cell as a rectangle with padding
+        g.fillRect(x + padding, y + padding, cellSize - 2 * padding, cellSize - 2 * padding);
     }
 
     @Override
@@ -169,26 +176,8 @@ public class Game implements ActionListener, KeyListener {
 
     @Override
     public void keyPressed(KeyEvent e) {
-        if (!gameOver && humanControls) {
-            switch (e.getKeyCode()) {
-                case (KeyEvent.VK_UP):
-                    snake.addNextCellByDirection(0, -1);
-                    break;
-                case (KeyEvent.VK_RIGHT):
-                    snake.addNextCellByDirection(1, 0);
-                    break;
-                case (KeyEvent.VK_DOWN):
-                    snake.addNextCellByDirection(0, 1);
-                    break;
-                case (KeyEvent.VK_LEFT):
-                    snake.addNextCellByDirection(-1, 0);
-                    break;
-            }
-        }
-        //stop the game whenever
-        if (e.getKeyCode() == KeyEvent.VK_SPACE) {
-            gameOver = true;
-        }
+        //the snake is only ever moved on the simulation thread
+        simulation.keyPressed(e.getKeyCode());
     }
 
     @Override
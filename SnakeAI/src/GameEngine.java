@@ -0,0 +1,309 @@
+//The GameEngine holds all of the state of one game (grid, snake, food and random number generator) and advances it
+//one move at a time. It has no dependency on Swing/AWT so it can be run headless as fast as the AI can plan.
+public class GameEngine implements GameState {
+
+    //how a game ended, or RUNNING if it has not ended yet
+    public enum Outcome {
+        RUNNING, WON, HIT_WALL, HIT_SELF, STALLED, STOPPED
+    }
+
+    //the board, which is shared with any other games of the same size
+    private Grid grid;
+    //decides where the AI controlled snake moves
+    private MoveStrategy strategy;
+    //what the AI's planning is reported to, nothing by default
+    private PlannerMetrics metrics = PlannerMetrics.NONE;
+    //remembers the planners' answers for board states they have seen before, nothing by default
+    private SafetyCache safetyCache = SafetyCache.NONE;
+    private Snake snake;
+    private Cell food;
+    private GameRandom random;
+    //told about every move and food spawn, for example to record a replay
+    private GameListener listener = GameListener.NONE;
+
+    //xLength and yLength is the number of cells per row/column, including the border walls
+    private int xLength;
+    private int yLength;
+    //moves is the amount of moves the snake has made so far
+    private int moves = 0;
+
+    private boolean humanControls = false;
+    private boolean gameOver = false;
+    private Outcome outcome = Outcome.RUNNING;
+
+    public GameEngine(int xLength, int yLength) {
+        this(new Grid(xLength, yLength), new GameRandom(System.nanoTime()));
+    }
+
+    public GameEngine(int xLength, int yLength, long seed) {
+        this(new Grid(xLength, yLength), new GameRandom(seed));
+    }
+
+    public GameEngine(Grid grid) {
+        this(grid, new GameRandom(System.nanoTime()));
+    }
+
+    public GameEngine(Grid grid, long seed) {
+        this(grid, new GameRandom(seed));
+    }
+
+    public GameEngine(Grid grid, GameRandom random) {
+        this.grid = grid;
+        this.xLength = grid.getXLength();
+        this.yLength = grid.getYLength();
+        this.random = random;
+
+        snake = new Snake(grid, grid.getStart().getX(), grid.getStart().getY());
+        strategy = MoveStrategies.create(MoveStrategies.DEFAULT, this);
+
+        moveFood();
+    }
+
+    //advances the game by a single move. Returns false once the game is over.
+    public boolean step() {
+        if (gameOver) {
+            return false;
+        }
+
+        Cell head = snake.snakeHead;
+        if (humanControls) {
+            snake.move();
+        } else {
+            Cell next = strategy.getNextCell(this);
+            metrics.moveFinished();
+            if (next == null) {
+                end(Outcome.STOPPED);
+                return false;
+            }
+            snake.addNextCellByAI(next);
+            snake.moveAI();
+        }
+        moves++;
+        listener.moved(grid.getDirection(head.getId(), snake.snakeHead.getId()));
+
+        //a snake without a body between its head and tail can move onto its tail, but never into a wall
+        if (isWall(snake.snakeHead)) {
+            end(Outcome.HIT_WALL);
+            return false;
+        }
+        if (!isInLegalCell(snake.snakeHead) && snake.getBodyLength() > 0) {
+            end(Outcome.HIT_SELF);
+            return false;
+        }
+
+        return eatFood();
+    }
+
+    //grows the snake and moves the food if the snake's head is on it. Returns false if the snake has filled the board.
+    private boolean eatFood() {
+        if (food == snake.snakeHead) {
+            if (isBoardFull()) {
+                end(Outcome.WON);
+                return false;
+            }
+            moveFood();
+            snake.grow();
+        }
+        return true;
+    }
+
+    //plays the game until it ends or until maxMoves moves have been made, and returns the amount of moves made
+    public int runToCompletion(int maxMoves) {
+        while (moves < maxMoves && step()) {
+        }
+        if (!gameOver) {
+            end(Outcome.STALLED);
+        }
+        return moves;
+    }
+
+    public int runToCompletion() {
+        //the snake can stall forever in rare cases, so the amount of moves is capped
+        long cells = grid.getInteriorCellCount();
+        return runToCompletion((int) Math.min(Integer.MAX_VALUE, cells * cells));
+    }
+
+    //puts the food on a random cell inside the walls that the snake does not cover, in O(log cells) with a single
+    //random number. The same random number always picks the same cell on the same board, see FreeCells.
+    public void moveFood() {
+        FreeCells freeCells = snake.getFreeCells();
+        if (freeCells.size() != grid.getInteriorCellCount() - snake.getLength()) {
+            throw new IllegalStateException(freeCells.size() + " cells are free, but the snake covers "
+                    + snake.getLength() + " of the " + grid.getInteriorCellCount() + " cells inside the walls");
+        }
+        food = getCell(freeCells.get(random.nextInt(freeCells.size())));
+        listener.foodPlaced(food);
+    }
+
+    //puts the food on the cell, which must be inside the walls and not covered by the snake
+    public void setFood(Cell food) {
+        if (!snake.getFreeCells().contains(food.getId())) {
+            throw new IllegalArgumentException("The food cannot be put on " + food);
+        }
+        this.food = food;
+    }
+
+    //the board is full when the head, body and tail cover every cell inside the walls
+    private boolean isBoardFull() {
+        return snake.getBodyLength() + 2 >= grid.getInteriorCellCount();
+    }
+
+    private void end(Outcome outcome) {
+        this.outcome = outcome;
+        gameOver = true;
+    }
+
+    @Override
+    public boolean isInLegalCell(Cell cell) {
+        //cannot touch the snake's body and tail, or be out of bounds
+        return !snake.isOccupied(cell.getId()) && !isWall(cell);
+    }
+
+    public boolean isWall(Cell cell) {
+        return grid.isWall(cell.getId());
+    }
+
+    @Override
+    public boolean isWall(int id) {
+        return grid.isWall(id);
+    }
+
+    @Override
+    public Cell getCell(int x, int y) {
+        return grid.getCell(x, y);
+    }
+
+    @Override
+    public Cell getCell(int id) {
+        return grid.getCell(id);
+    }
+
+    @Override
+    public Grid getGrid() {
+        return grid;
+    }
+
+    //returns a copy of everything that decides how the game goes on from here
+    public GameSnapshot snapshot() {
+        return new GameSnapshot(xLength, yLength, grid.getWallHash(), snake.getCells(), snake.getNewTails(),
+                food.getId(), random.getState(), moves, outcome);
+    }
+
+    //puts the game back into the state of the snapshot, which has to be of a game on a grid of the same size with the
+    //same walls. The strategy is kept, and plans for the next moves the same way as for a game that got there by
+    //itself.
+    public void restore(GameSnapshot snapshot) {
+        if (snapshot.getXLength() != xLength || snapshot.getYLength() != yLength) {
+            throw new IllegalArgumentException("The snapshot is of a " + snapshot.getXLength() + "x"
+                    + snapshot.getYLength() + " game, but this game is " + xLength + "x" + yLength);
+        }
+        if (snapshot.getWallHash() != grid.getWallHash()) {
+            throw new IllegalArgumentException("The snapshot is of a game on a board with other walls than this "
+                    + "game");
+        }
+        //a snapshot that was made up or broken. Only the head of a snake that ran into a wall is on one.
+        int length = snapshot.getLength();
+        for (int i = 0; i < length; i++) {
+            boolean headOnWall = i == length - 1 && snapshot.getOutcome() == Outcome.HIT_WALL;
+            if (grid.isWall(snapshot.getCell(i)) && !headOnWall) {
+                throw new IllegalArgumentException("The snapshot has the snake on a wall of this game");
+            }
+        }
+        if (grid.isWall(snapshot.getFood())) {
+            throw new IllegalArgumentException("The snapshot has the food on a wall of this game");
+        }
+        snake.restore(snapshot.getCells(), snapshot.getNewTails());
+        food = getCell(snapshot.getFood());
+        random.setState(snapshot.getRandomState());
+        moves = snapshot.getMoves();
+        outcome = snapshot.getOutcome();
+        gameOver = outcome != Outcome.RUNNING;
+    }
+
+    //ends the game early
+    public void stop() {
+        if (!gameOver) {
+            end(Outcome.STOPPED);
+        }
+    }
+
+    @Override
+    public Snake getSnake() {
+        return snake;
+    }
+
+    @Override
+    public Cell getFood() {
+        return food;
+    }
+
+    @Override
+    public int getXLength() {
+        return xLength;
+    }
+
+    @Override
+    public int getYLength() {
+        return yLength;
+    }
+
+    @Override
+    public int getMoves() {
+        return moves;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public boolean isWon() {
+        return outcome == Outcome.WON;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public GameListener getListener() {
+        return listener;
+    }
+
+    public void setListener(GameListener listener) {
+        this.listener = listener;
+    }
+
+    public MoveStrategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(MoveStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    @Override
+    public PlannerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(PlannerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public SafetyCache getSafetyCache() {
+        return safetyCache;
+    }
+
+    //the cache is only for this game, as it is not thread safe. It stays valid across snapshots and restores.
+    public void setSafetyCache(SafetyCache safetyCache) {
+        this.safetyCache = safetyCache;
+    }
+
+    public boolean isHumanControls() {
+        return humanControls;
+    }
+
+    public void setHumanControls(boolean humanControls) {
+        this.humanControls = humanControls;
+    }
+}
@@ -0,0 +1,62 @@
+//A GameFrame is what the simulation thread hands to the window: the cells that changed since the previous frame the
+//window took, each with what covers it now, and the state of the game. A frame never changes after it is created, so
+//it can be read on another thread without any locking.
+public final class GameFrame {
+
+    //what covers a cell. DEAD is the head of a snake whose game is over.
+    public enum Kind {
+        EMPTY, WALL, BODY, HEAD, TAIL, FOOD, DEAD
+    }
+
+    private final int[] cells;
+    private final Kind[] kinds;
+    private final int moves;
+    private final int length;
+    private final GameEngine.Outcome outcome;
+    //the total time spent on moves so far, which is almost all planning when the AI plays
+    private final long stepNanos;
+
+    //cells and kinds are not copied, so they must not be changed afterwards
+    public GameFrame(int[] cells, Kind[] kinds, int moves, int length, GameEngine.Outcome outcome, long stepNanos) {
+        this.cells = cells;
+        this.kinds = kinds;
+        this.moves = moves;
+        this.length = length;
+        this.outcome = outcome;
+        this.stepNanos = stepNanos;
+    }
+
+    //the amount of cells that changed
+    public int getChangedCount() {
+        return cells.length;
+    }
+
+    //returns the id of the i-th changed cell
+    public int getCell(int i) {
+        return cells[i];
+    }
+
+    public Kind getKind(int i) {
+        return kinds[i];
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public GameEngine.Outcome getOutcome() {
+        return outcome;
+    }
+
+    public long getStepNanos() {
+        return stepNanos;
+    }
+
+    public boolean isGameOver() {
+        return outcome != GameEngine.Outcome.RUNNING;
+    }
+}
@@ -0,0 +1,15 @@
+//A GameListener is told about every move and food spawn of a GameEngine, in the order they happen. Every method does
+//nothing by default, and NONE, which every game starts with, listens to nothing.
+public interface GameListener {
+    GameListener NONE = new GameListener() {
+    };
+
+    //the snake moved to the neighbour of its head in the direction (see Grid.getNeighbour), or -1 if the move was not
+    //to a neighbouring cell
+    default void moved(int direction) {
+    }
+
+    //the food was put on the cell, after the snake ate it
+    default void foodPlaced(Cell food) {
+    }
+}
@@ -0,0 +1,42 @@
+//The random number generator of a game (SplitMix64). Unlike java.util.Random, its whole state is one long that can be
+//read and set, so a game can be saved and later continued with exactly the same food spawns.
+public class GameRandom {
+    private long state;
+
+    public GameRandom(long seed) {
+        state = seed;
+    }
+
+    public long nextLong() {
+        return mix(state += 0x9E3779B97F4A7C15L);
+    }
+
+    //scrambles the bits of a value, so that values next to each other give results that look unrelated
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    //returns a uniformly distributed value from 0 to bound - 1
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive, but is " + bound);
+        }
+        //values from the incomplete range at the top are thrown away, so that every result is equally likely
+        long limit = Long.MAX_VALUE - Long.MAX_VALUE % bound;
+        long value;
+        do {
+            value = nextLong() >>> 1;
+        } while (value >= limit);
+        return (int) (value % bound);
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+}
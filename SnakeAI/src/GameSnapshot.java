@@ -0,0 +1,96 @@
+import java.util.Arrays;
+import java.util.Objects;
+
+//A GameSnapshot is a copy of everything that decides how a game goes on: the cells the snake covers, the food, the
+//state of the random number generator and the amount of moves made. A game restored from it spawns the food on the
+//same cells as the game it was taken from, as which free cell the food spawns on only depends on the random number
+//and the cells the snake covers (see FreeCells). It also keeps the hash of the board's walls (see Grid.getWallHash),
+//so it is not restored on another map of the same size. See GameEngine.snapshot and GameEngine.restore.
+//It never changes after it is created.
+public final class GameSnapshot {
+    private final int xLength, yLength;
+    private final long wallHash;
+    //the ids of the cells the snake covers, from the tail to the head
+    private final int[] cells;
+    private final int newTails;
+    private final int food;
+    private final long randomState;
+    private final int moves;
+    private final GameEngine.Outcome outcome;
+
+    //cells is not copied, so it must not be changed afterwards
+    public GameSnapshot(int xLength, int yLength, long wallHash, int[] cells, int newTails, int food, long randomState,
+                        int moves, GameEngine.Outcome outcome) {
+        this.xLength = xLength;
+        this.yLength = yLength;
+        this.wallHash = wallHash;
+        this.cells = cells;
+        this.newTails = newTails;
+        this.food = food;
+        this.randomState = randomState;
+        this.moves = moves;
+        this.outcome = outcome;
+    }
+
+    public int getXLength() {
+        return xLength;
+    }
+
+    public int getYLength() {
+        return yLength;
+    }
+
+    public long getWallHash() {
+        return wallHash;
+    }
+
+    //returns a copy of the ids of the cells the snake covers, from the tail to the head
+    public int[] getCells() {
+        return cells.clone();
+    }
+
+    public int getLength() {
+        return cells.length;
+    }
+
+    public int getCell(int i) {
+        return cells[i];
+    }
+
+    public int getNewTails() {
+        return newTails;
+    }
+
+    public int getFood() {
+        return food;
+    }
+
+    public long getRandomState() {
+        return randomState;
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public GameEngine.Outcome getOutcome() {
+        return outcome;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof GameSnapshot)) {
+            return false;
+        }
+        GameSnapshot snapshot = (GameSnapshot) other;
+        return xLength == snapshot.xLength && yLength == snapshot.yLength && wallHash == snapshot.wallHash
+                && Arrays.equals(cells, snapshot.cells) && newTails == snapshot.newTails && food == snapshot.food
+                && randomState == snapshot.randomState && moves == snapshot.moves && outcome == snapshot.outcome;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(xLength, yLength, wallHash, Arrays.hashCode(cells), newTails, food, randomState, moves,
+                outcome);
+    }
+}
@@ -0,0 +1,30 @@
+//A read-only view of a game, which is all a MoveStrategy gets to decide on its next move
+public interface GameState {
+    SnakeView getSnake();
+
+    Cell getFood();
+
+    Cell getCell(int x, int y);
+
+    Cell getCell(int id);
+
+    //returns whether the snake can move into the cell without dying
+    boolean isInLegalCell(Cell cell);
+
+    boolean isWall(int id);
+
+    //the number of cells per row/column, including the border walls
+    int getXLength();
+
+    int getYLength();
+
+    int getMoves();
+
+    Grid getGrid();
+
+    //what the planners report what they do to, see PlannerMetrics
+    PlannerMetrics getMetrics();
+
+    //where the planners remember their answers for board states they have seen before, see SafetyCache
+    SafetyCache getSafetyCache();
+}
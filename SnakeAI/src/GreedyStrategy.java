@@ -0,0 +1,13 @@
+//Uses a greedy pathfinding algorithm which finds the best path directly to the food, see Pathfinder.getNextCell
+public class GreedyStrategy implements MoveStrategy {
+    private Pathfinder pathFinder;
+
+    public GreedyStrategy(Pathfinder pathFinder) {
+        this.pathFinder = pathFinder;
+    }
+
+    @Override
+    public Cell getNextCell(GameState game) {
+        return pathFinder.getNextCell(game.getSnake().getSnakeHead(), game.getFood());
+    }
+}
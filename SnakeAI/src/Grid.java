@@ -0,0 +1,260 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+//The Grid is the board a game is played on: xLength by yLength cells, where the outermost row and column on every
+//side are walls. A map (see load) can have more walls inside them, as long as every cell inside the walls can still be
+//reached from every other one. Cells are numbered by id = x * yLength + y, so finding a neighbour or checking for a
+//wall is plain arithmetic on the id and only one Cell object exists per cell. A Grid never changes after it is
+//created, so games on the same board can share one.
+public class Grid {
+    //the directions a snake can move in, see getNeighbour
+    public static final int RIGHT = 0, LEFT = 1, DOWN = 2, UP = 3;
+
+    //xLength and yLength is the number of cells per row/column, including the border walls
+    private int xLength, yLength;
+    //cells[id] is the Cell with that id
+    private Cell[] cells;
+    private boolean[] walls;
+    private boolean innerWalls;
+    //the xor of the Zobrist keys (see getZobristKey) of the walls inside the border, see getWallHash
+    private long wallHash;
+    private int interiorCellCount;
+    //the id of the cell the snake starts on
+    private int start;
+    //openNeighbours[id * 4 + direction] is the id of the cell's neighbour in that direction (see getNeighbour), or -1
+    //if the neighbour is a wall. Walls have no open neighbours at all. It is worked out once, so the planners find the
+    //cells they can move on to with one array load each.
+    private int[] openNeighbours;
+
+    public Grid(int xLength, int yLength) {
+        this(xLength, yLength, null, -1);
+    }
+
+    //a board with walls inside the border where innerWalls[id] is true, or none if it is null. The snake starts on the
+    //cell with the id start, or with -1 on the free cell closest to the middle.
+    public Grid(int xLength, int yLength, boolean[] innerWalls, int start) {
+        if (xLength < 3 || yLength < 3 || (long) xLength * yLength > Integer.MAX_VALUE / 4) {
+            throw new IllegalArgumentException("A board needs at least one cell inside the walls and less than "
+                    + Integer.MAX_VALUE / 4 + " cells, but is " + xLength + "x" + yLength);
+        }
+        this.xLength = xLength;
+        this.yLength = yLength;
+
+        cells = new Cell[xLength * yLength];
+        walls = new boolean[cells.length];
+        for (int x = 0; x < xLength; x++) {
+            for (int y = 0; y < yLength; y++) {
+                int id = x * yLength + y;
+                cells[id] = new Cell(x, y, id);
+                walls[id] = x == 0 || x == xLength - 1 || y == 0 || y == yLength - 1;
+                if (innerWalls != null && innerWalls[id] && !walls[id]) {
+                    walls[id] = true;
+                    this.innerWalls = true;
+                    wallHash ^= getZobristKey(id);
+                }
+                if (!walls[id]) {
+                    interiorCellCount++;
+                }
+            }
+        }
+        openNeighbours = new int[cells.length * 4];
+        for (int id = 0; id < cells.length; id++) {
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbour = walls[id] ? -1 : getNeighbour(id, direction);
+                openNeighbours[id * 4 + direction] = neighbour >= 0 && !walls[neighbour] ? neighbour : -1;
+            }
+        }
+
+        if (start < 0) {
+            start = getClosestFreeCell(xLength / 2 * yLength + yLength / 2);
+        }
+        if (start < 0 || start >= cells.length || walls[start]) {
+            throw new IllegalArgumentException("The snake cannot start on a wall");
+        }
+        this.start = start;
+        if (this.innerWalls && countReachable(start) != interiorCellCount) {
+            throw new IllegalArgumentException("Every cell inside the walls has to be reachable from every other one");
+        }
+    }
+
+    //loads a map from a text file with one line per row, from the top, and one character per cell: # for a wall, . for
+    //a free cell and S for the free cell the snake starts on, if it is not the one closest to the middle. The border
+    //has to be walls, for example:
+    //  #######
+    //  #..#..#
+    //  #.S#..#
+    //  #.....#
+    //  #######
+    public static Grid load(Path file) throws IOException {
+        List<String> rows = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (!line.isEmpty()) {
+                rows.add(line);
+            }
+        }
+        int xLength = rows.isEmpty() ? 0 : rows.get(0).length(), yLength = rows.size();
+        if (xLength < 3 || yLength < 3) {
+            throw new IOException(file + " is not a map of at least 3x3 cells");
+        }
+        boolean[] innerWalls = new boolean[xLength * yLength];
+        int start = -1;
+        for (int y = 0; y < yLength; y++) {
+            String row = rows.get(y);
+            if (row.length() != xLength) {
+                throw new IOException(file + " has rows of different lengths, row " + (y + 1) + " has "
+                        + row.length() + " cells instead of " + xLength);
+            }
+            for (int x = 0; x < xLength; x++) {
+                char c = row.charAt(x);
+                boolean border = x == 0 || x == xLength - 1 || y == 0 || y == yLength - 1;
+                if ((c != '#' && c != '.' && c != 'S') || (border && c != '#')) {
+                    throw new IOException(file + " has a " + (border ? "border cell that is not a wall" : "'" + c
+                            + "'") + " at row " + (y + 1) + ", column " + (x + 1));
+                }
+                innerWalls[x * yLength + y] = c == '#';
+                if (c == 'S') {
+                    start = x * yLength + y;
+                }
+            }
+        }
+        try {
+            return new Grid(xLength, yLength, innerWalls, start);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(file + " is not a valid map: " + e.getMessage());
+        }
+    }
+
+    //the free cell with the fewest moves to the cell if nothing was in the way, or -1 if there is none
+    private int getClosestFreeCell(int id) {
+        if (!walls[id]) {
+            return id;
+        }
+        int closest = -1;
+        for (int other = 0; other < cells.length; other++) {
+            if (!walls[other] && (closest < 0 || getDistance(id, other) < getDistance(id, closest))) {
+                closest = other;
+            }
+        }
+        return closest;
+    }
+
+    //the amount of free cells that can be reached from the cell
+    private int countReachable(int from) {
+        boolean[] reached = new boolean[cells.length];
+        int[] queue = new int[interiorCellCount];
+        int head = 0, tail = 0;
+        queue[tail++] = from;
+        reached[from] = true;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbour = openNeighbours[current * 4 + direction];
+                if (neighbour >= 0 && !reached[neighbour]) {
+                    reached[neighbour] = true;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        return tail;
+    }
+
+    //parses a size given as "<xLength>x<yLength>", for example "15x10"
+    public static Grid parse(String size) {
+        String[] lengths = size.split("x");
+        if (lengths.length != 2) {
+            throw new IllegalArgumentException("A board size looks like 15x10, not " + size);
+        }
+        return new Grid(Integer.parseInt(lengths[0]), Integer.parseInt(lengths[1]));
+    }
+
+    public Cell getCell(int x, int y) {
+        return cells[x * yLength + y];
+    }
+
+    public Cell getCell(int id) {
+        return cells[id];
+    }
+
+    public boolean isWall(int id) {
+        return walls[id];
+    }
+
+    //returns the id of the neighbouring cell in the given direction: RIGHT is x + 1, LEFT is x - 1, DOWN is y + 1 and
+    //UP is y - 1. Only cells inside the walls have a neighbour on every side.
+    public int getNeighbour(int id, int direction) {
+        switch (direction) {
+            case RIGHT:
+                return id + yLength;
+            case LEFT:
+                return id - yLength;
+            case DOWN:
+                return id + 1;
+            default:
+                return id - 1;
+        }
+    }
+
+    //returns the id of the neighbouring cell in the given direction, or -1 if it is a wall or the cell is a wall
+    public int getOpenNeighbour(int id, int direction) {
+        return openNeighbours[id * 4 + direction];
+    }
+
+    //returns the direction (see getNeighbour) from a cell to a neighbouring cell, or -1 if they are not neighbours
+    public int getDirection(int from, int to) {
+        for (int direction = 0; direction < 4; direction++) {
+            if (getNeighbour(from, direction) == to) {
+                return direction;
+            }
+        }
+        return -1;
+    }
+
+    //returns the amount of moves between the two cells if nothing was in the way
+    public int getDistance(int a, int b) {
+        return Math.abs(a / yLength - b / yLength) + Math.abs(a % yLength - b % yLength);
+    }
+
+    //returns the cell's Zobrist key, a random looking number that is the same for the cell in every game. The hash of a
+    //set of cells is the xor of their keys, so it changes in constant time when a cell is added or removed.
+    public static long getZobristKey(int id) {
+        return GameRandom.mix((id + 1) * 0x9E3779B97F4A7C15L);
+    }
+
+    public int getXLength() {
+        return xLength;
+    }
+
+    public int getYLength() {
+        return yLength;
+    }
+
+    //the amount of cells including the walls, which is the size of any array indexed by cell id
+    public int getCellCount() {
+        return cells.length;
+    }
+
+    //the amount of cells the snake can move through
+    public int getInteriorCellCount() {
+        return interiorCellCount;
+    }
+
+    //whether there are walls inside the border
+    public boolean hasInnerWalls() {
+        return innerWalls;
+    }
+
+    //a hash of the walls inside the border, which is 0 if there are none. Two boards of the same size with the same
+    //walls have the same hash in every run, so checkpoints and replays keep it to tell which map they were played on.
+    public long getWallHash() {
+        return wallHash;
+    }
+
+    //the cell the snake starts on
+    public Cell getStart() {
+        return cells[start];
+    }
+}
@@ -0,0 +1,109 @@
+//This strategy precomputes a Hamiltonian cycle, a loop that visits every cell inside the walls exactly once. Simply
+//following the cycle always fills the board, because the snake's body then stays in cycle order behind the head and
+//the cell ahead of the head is always free or the tail. To get to the food faster, the snake takes shortcuts to
+//neighbouring cells further along the cycle, as long as it does not jump past the food or too close to its tail.
+//Every move only looks at the 4 neighbouring cells.
+//The snake has to use this strategy from the start of the game, otherwise its body is not in cycle order.
+public class HamiltonianStrategy implements MoveStrategy {
+    //order[id] is the position of the cell in the cycle, and cycle[position] is the id of the cell at that position
+    private int[] order, cycle;
+    private Grid grid;
+    //shortcuts are only taken while the snake covers less than this fraction of the board
+    private double shortcutFraction = 0.5;
+
+    public HamiltonianStrategy(Grid grid) {
+        this.grid = grid;
+        int width = grid.getXLength() - 2, height = grid.getYLength() - 2;
+        if (grid.hasInnerWalls()) {
+            throw new IllegalArgumentException("A Hamiltonian cycle can only be made on a board without inner walls");
+        }
+        if (width < 2 || height < 2 || (width % 2 != 0 && height % 2 != 0)) {
+            throw new IllegalArgumentException("A Hamiltonian cycle needs an even number of rows or columns, but the "
+                    + "board is " + width + "x" + height);
+        }
+        order = new int[grid.getCellCount()];
+        cycle = new int[width * height];
+
+        int position = 0;
+        if (height % 2 == 0) {
+            //go right along the top row, snake through the other columns row by row and return up the first column
+            for (int x = 1; x <= width; x++) {
+                position = add(x, 1, position);
+            }
+            for (int y = 2; y <= height; y++) {
+                for (int i = 0; i < width - 1; i++) {
+                    position = add(y % 2 == 0 ? width - i : 2 + i, y, position);
+                }
+            }
+            for (int y = height; y >= 2; y--) {
+                position = add(1, y, position);
+            }
+        } else {
+            //the same shape turned on its side
+            for (int y = 1; y <= height; y++) {
+                position = add(1, y, position);
+            }
+            for (int x = 2; x <= width; x++) {
+                for (int i = 0; i < height - 1; i++) {
+                    position = add(x, x % 2 == 0 ? height - i : 2 + i, position);
+                }
+            }
+            for (int x = width; x >= 2; x--) {
+                position = add(x, 1, position);
+            }
+        }
+    }
+
+    private int add(int x, int y, int position) {
+        int id = grid.getCell(x, y).getId();
+        order[id] = position;
+        cycle[position] = id;
+        return position + 1;
+    }
+
+    @Override
+    public Cell getNextCell(GameState game) {
+        SnakeView snake = game.getSnake();
+        int head = snake.getSnakeHead().getId();
+        int cycleLength = cycle.length;
+        //the next cell along the cycle is always safe to move to
+        int next = cycle[(order[head] + 1) % cycleLength];
+
+        int length = snake.getBodyLength() + 2;
+        if (length + snake.getNewTails() < cycleLength * shortcutFraction) {
+            int headDistance = distanceFromTail(snake, head);
+            int foodDistance = distanceFromTail(snake, game.getFood().getId());
+            int bestDistance = headDistance + 1;
+
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbour = grid.getOpenNeighbour(head, direction);
+                if (neighbour < 0 || !game.isInLegalCell(game.getCell(neighbour))) {
+                    continue;
+                }
+                int distance = distanceFromTail(snake, neighbour);
+                //the neighbour has to be ahead of the head, must not skip past the food, and has to leave enough
+                //room in front of the tail for the snake to grow
+                if (distance > bestDistance && (foodDistance < headDistance || distance <= foodDistance)
+                        && cycleLength - distance > snake.getNewTails() + 2) {
+                    next = neighbour;
+                    bestDistance = distance;
+                }
+            }
+        }
+        return game.getCell(next);
+    }
+
+    //returns how far along the cycle the cell is from the snake's tail
+    private int distanceFromTail(SnakeView snake, int id) {
+        int distance = order[id] - order[snake.getSnakeTail().getId()];
+        return distance < 0 ? distance + cycle.length : distance;
+    }
+
+    public double getShortcutFraction() {
+        return shortcutFraction;
+    }
+
+    public void setShortcutFraction(double shortcutFraction) {
+        this.shortcutFraction = shortcutFraction;
+    }
+}
@@ -0,0 +1,45 @@
+//A Histogram counts values in buckets that double in size, so it takes constant memory and time however many values
+//are recorded. Bucket 0 holds 0 and bucket i holds the values from 2^(i-1) to 2^i - 1, so percentiles are only
+//known to within a factor of 2 and are reported as the top of their bucket. The count, sum and max are exact.
+public class Histogram {
+    private final long[] buckets = new long[64];
+    private long count = 0, sum = 0, max = 0;
+
+    //values below 0 are counted as 0
+    public void record(long value) {
+        value = Math.max(0, value);
+        buckets[64 - Long.numberOfLeadingZeros(value)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    //returns the top of the bucket holding the value with this percentile rank, but never more than the max
+    public long getPercentile(double percentile) {
+        long rank = (long) Math.ceil(percentile / 100 * count);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank && seen > 0) {
+                return i == 0 ? 0 : Math.min(max, (1L << i) - 1);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,104 @@
+//A binary min-heap of cell ids used as the open set of the pathfinder. Unlike a PriorityQueue it remembers where every
+//id is in the heap, so checking if a cell is in the heap and lowering a cell's score (decrease-key) are cheap, and it
+//never allocates after it has been created.
+public class IndexedMinHeap {
+    private int[] heap;
+    //position[id] is the index of the id in heap. It is only valid while the id is in the heap.
+    private int[] position;
+    private int size;
+
+    //the scores are owned by the pathfinder and read when comparing ids
+    private int[] fScore, gScore, tailDistance;
+
+    public IndexedMinHeap(int capacity, int[] fScore, int[] gScore, int[] tailDistance) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        this.fScore = fScore;
+        this.gScore = gScore;
+        this.tailDistance = tailDistance;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void add(int id) {
+        heap[size] = id;
+        position[id] = size;
+        size++;
+        siftUp(position[id]);
+    }
+
+    //removes and returns the most prioritized id
+    public int remove() {
+        int top = heap[0];
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    //must be called after the id's score has been lowered while it is in the heap
+    public void decreaseKey(int id) {
+        siftUp(position[id]);
+    }
+
+    //priority is lowest fScore. If fScore's are the same, prioritize the highest gScore (the cell closest to the
+    //goal). If the gScores are also the same, prioritize the cell furthest from the snake tail.
+    private boolean isBefore(int a, int b) {
+        if (fScore[a] != fScore[b]) {
+            return fScore[a] < fScore[b];
+        }
+        if (gScore[a] != gScore[b]) {
+            return gScore[a] > gScore[b];
+        }
+        return tailDistance[a] > tailDistance[b];
+    }
+
+    private void siftUp(int index) {
+        int id = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!isBefore(id, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            position[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = id;
+        position[id] = index;
+    }
+
+    private void siftDown(int index) {
+        int id = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && isBefore(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!isBefore(heap[child], id)) {
+                break;
+            }
+            heap[index] = heap[child];
+            position[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = id;
+        position[id] = index;
+    }
+}
@@ -0,0 +1,184 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+//The LookaheadStrategy tries out every move the snake can make by playing the game on from it a few times (rollouts),
+//with the base strategy making the moves after the first one and the food spawning at random. The candidate moves are
+//played out at the same time on the common fork-join pool, each on its own engine, so they share nothing.
+//A move is better if the snake survives more of its rollouts. The base strategy's own move is kept unless another move
+//is strictly better, so the snake only leaves the base strategy's path to stay out of a trap the base strategy walks
+//into. Going by how fast the rollouts eat as well makes the snake take shortcuts that only look safe as far ahead as
+//the rollouts go, and it dies more often and needs more moves to fill the board.
+//The search deepens one food at a time: first every rollout is played until the next food is eaten, then until two are
+//eaten, and so on, until maxDepth or until the time budget for the move runs out. Rollouts still going when the budget
+//runs out are abandoned and the move comes from the deepest search that finished, or from the base strategy if not
+//even the first one did. The deadline is checked between the moves of a rollout, so a move takes at most the budget and
+//about one more move of the base strategy.
+//It only sees its own snake, so it does not know about the other snakes in an Arena.
+public class LookaheadStrategy implements MoveStrategy {
+    private MoveStrategy base;
+    private String baseName;
+    private long budgetNanos;
+    private int maxDepth, rollouts;
+    //the engine every candidate move is played out on, by direction
+    private Rollout[] engines = new Rollout[4];
+
+    //baseName is the strategy making the moves in the rollouts, as accepted by MoveStrategies.create
+    public LookaheadStrategy(GameState game, String baseName, long budgetNanos, int maxDepth, int rollouts) {
+        this.base = MoveStrategies.create(baseName, game);
+        this.baseName = baseName;
+        this.budgetNanos = budgetNanos;
+        this.maxDepth = maxDepth;
+        this.rollouts = rollouts;
+    }
+
+    @Override
+    public Cell getNextCell(GameState game) {
+        long deadline = System.nanoTime() + budgetNanos;
+        SnakeView snake = game.getSnake();
+        Grid grid = game.getGrid();
+        int head = snake.getSnakeHead().getId();
+        List<Integer> candidates = new ArrayList<>();
+        for (int direction = 0; direction < 4; direction++) {
+            int next = grid.getOpenNeighbour(head, direction);
+            boolean tailMovesOn = next == snake.getSnakeTail().getId() && snake.getNewTails() == 0;
+            if (next >= 0 && !game.isWall(next) && (!snake.isOccupied(next) || tailMovesOn)) {
+                candidates.add(direction);
+            }
+        }
+        if (candidates.size() == 1) {
+            return game.getCell(grid.getNeighbour(head, candidates.get(0)));
+        }
+
+        Cell baseMove = base.getNextCell(game);
+        if (candidates.isEmpty()) {
+            return baseMove;
+        }
+        int baseIndex = baseMove == null ? -1 : candidates.indexOf(grid.getDirection(head, baseMove.getId()));
+        GameSnapshot start = new GameSnapshot(game.getXLength(), game.getYLength(), grid.getWallHash(), getCells(snake),
+                snake.getNewTails(), game.getFood().getId(), 0, game.getMoves(), GameEngine.Outcome.RUNNING);
+        int best = -1;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int[] survived = evaluate(game, candidates, start, depth, deadline);
+            if (survived == null) {
+                break;
+            }
+            best = Math.max(baseIndex, 0);
+            int surviving = 0;
+            for (int i = 0; i < survived.length; i++) {
+                if (survived[i] > survived[best]) {
+                    best = i;
+                }
+                if (survived[i] > 0) {
+                    surviving++;
+                }
+            }
+            //looking further ahead cannot bring a move in which the snake always died back
+            if (surviving <= 1) {
+                break;
+            }
+        }
+        if (best < 0) {
+            return baseMove;
+        }
+        return game.getCell(grid.getNeighbour(head, candidates.get(best)));
+    }
+
+    //the ids of the cells the snake covers, from the tail to the head
+    private static int[] getCells(SnakeView snake) {
+        int[] cells = new int[snake.getBodyLength() + 2];
+        for (int i = 0; i < cells.length - 1; i++) {
+            cells[i] = snake.getCellAtSequence(snake.getTailSequence() + i).getId();
+        }
+        cells[cells.length - 1] = snake.getSnakeHead().getId();
+        return cells;
+    }
+
+    //plays out every candidate until depth foods are eaten and returns in how many rollouts of each the snake survived,
+    //or null if the time ran out
+    private int[] evaluate(GameState game, List<Integer> candidates, GameSnapshot start, int depth, long deadline) {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int direction : candidates) {
+            if (engines[direction] == null) {
+                engines[direction] = new Rollout(game.getGrid(), baseName);
+            }
+            Rollout rollout = engines[direction];
+            Cell first = game.getCell(game.getGrid().getNeighbour(start.getCell(start.getLength() - 1), direction));
+            tasks.add(() -> rollout.playOut(start, first, depth, rollouts, deadline));
+        }
+        int[] survived = new int[tasks.size()];
+        try {
+            List<Future<Integer>> results = ForkJoinPool.commonPool().invokeAll(tasks);
+            for (int i = 0; i < survived.length; i++) {
+                survived[i] = results.get(i).get();
+                if (survived[i] < 0) {
+                    return null;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        return survived;
+    }
+
+    //an engine that plays the game on from a candidate move, and counts the food eaten
+    private static class Rollout implements MoveStrategy, GameListener {
+        private GameEngine engine;
+        private MoveStrategy base;
+        private Cell first;
+        private int eaten;
+
+        Rollout(Grid grid, String baseName) {
+            engine = new GameEngine(grid, new GameRandom(0));
+            base = MoveStrategies.create(baseName, engine);
+            engine.setStrategy(this);
+            engine.setListener(this);
+        }
+
+        //returns in how many of the rollouts the snake survived, or -1 if the deadline passed. Rollout i of every
+        //candidate gets the same random numbers, which spawn the food on the same cell whenever the candidates' snakes
+        //leave the same cells free (see FreeCells), so the candidates are compared on equal terms.
+        int playOut(GameSnapshot start, Cell first, int depth, int rollouts, long deadline) {
+            int survived = 0;
+            //a snake that needs longer than this to eat is stalling, which does not count as dying
+            int maxMoves = start.getMoves() + depth * engine.getGrid().getInteriorCellCount();
+            for (int i = 0; i < rollouts; i++) {
+                engine.restore(new GameSnapshot(start.getXLength(), start.getYLength(), start.getWallHash(),
+                        start.getCells(), start.getNewTails(), start.getFood(), start.getMoves() * 31L + i,
+                        start.getMoves(), GameEngine.Outcome.RUNNING));
+                this.first = first;
+                eaten = 0;
+                while (eaten < depth && engine.getMoves() < maxMoves && engine.step()) {
+                    if (System.nanoTime() > deadline) {
+                        return -1;
+                    }
+                }
+                if (!engine.isGameOver() || engine.isWon()) {
+                    survived++;
+                }
+            }
+            return survived;
+        }
+
+        @Override
+        public Cell getNextCell(GameState game) {
+            if (first != null) {
+                Cell next = first;
+                first = null;
+                return next;
+            }
+            return base.getNextCell(game);
+        }
+
+        @Override
+        public void foodPlaced(Cell food) {
+            eaten++;
+        }
+    }
+}
@@ -3,9 +3,213 @@
  * challenge my skills by programming an AI to play the game. Finally, after undergoing countless problems and bugs,
  * I have created a nearly-perfect snake AI. Completion date: April 16, 2019. This is my first personal project.
  */
+import javax.management.JMException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+//usage: java Main [--human] [--strategy name] [--size 15x10 | --map file] [--seed n] [--turbo] [--metrics file]
+//                 [--jmx] [--cache megabytes] [--record file] [--replay file [--seek move]]
+//                 [--checkpoint file [--checkpoint-seconds n]] [--resume file] [--deadline milliseconds]
+//--human lets you play with the arrow keys, and --strategy picks the AI's strategy by a name accepted by
+//MoveStrategies.create. The default is MoveStrategies.DEFAULT. --size is the number of cells per row and column,
+//including the border walls. --map plays on a board with walls inside loaded from the file instead (see Grid.load
+//and SnakeAI/maps), and has to be given again to replay or resume a game played on it, which fails without the same
+//map as checkpoints and replays keep a hash of its walls. --turbo moves the snake as
+//fast as the AI can plan and shows how fast that is.
+//--metrics records what the AI's planning does (see RecordingMetrics) and writes it to the file when the game is over,
+//as JSON if the file name ends in .json and as CSV otherwise. --jmx records it too and shows it live over JMX.
+//--cache lets the AI remember its answers for board states it has seen before in a SafetyCache of at most that many
+//megabytes, and prints how often it helped when the game is over.
+//--deadline lets the AI plan on a thread of its own, ahead of the game, and makes a quick safe move instead of waiting
+//for it any longer than that (see DeadlineStrategy). How often that happened and how long the moves waited are
+//printed when the game is over.
+//--seed makes the food spawn the same way every time. --record writes a replay of the game to the file, and --replay
+//plays one back instead of a new game, starting from the move given by --seek.
+//--checkpoint saves the game to the file every --checkpoint-seconds (10 by default) without holding it up, and once
+//more when it is over (see Checkpointer). --resume goes on with the game saved in a checkpoint instead of a new game,
+//on a board of the size it was saved with. A game stopped with the space key goes on where it was stopped. The food
+//spawns on the same cells as it would have if the game had not been interrupted, as long as the snake makes the same
+//moves. It may not, as the paths the AI had planned are not saved and it plans them again, which can end on another
+//path of the same length, so a resumed game is not guaranteed to play out the same as the uninterrupted one.
 public class Main {
     static Game game;
-    public static void main(String[] args) {
-        game = new Game();
+    public static void main(String[] args) throws JMException, IOException {
+        boolean humanControls = false;
+        String strategy = MoveStrategies.DEFAULT;
+        String size = "15x10";
+        Path mapFile = null;
+        boolean turbo = false;
+        Path metricsFile = null;
+        boolean jmx = false;
+        int cacheMegabytes = 0;
+        Long seed = null;
+        Path recordFile = null, replayFile = null;
+        int seek = 0;
+        Path checkpointFile = null, resumeFile = null;
+        int checkpointSeconds = 10;
+        double deadlineMillis = 0;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--human":
+                    humanControls = true;
+                    break;
+                case "--strategy":
+                    strategy = args[++i];
+                    break;
+                case "--size":
+                    size = args[++i];
+                    break;
+                case "--map":
+                    mapFile = Paths.get(args[++i]);
+                    break;
+                case "--turbo":
+                    turbo = true;
+                    break;
+                case "--metrics":
+                    metricsFile = Paths.get(args[++i]);
+                    break;
+                case "--jmx":
+                    jmx = true;
+                    break;
+                case "--cache":
+                    cacheMegabytes = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--record":
+                    recordFile = Paths.get(args[++i]);
+                    break;
+                case "--replay":
+                    replayFile = Paths.get(args[++i]);
+                    break;
+                case "--seek":
+                    seek = Integer.parseInt(args[++i]);
+                    break;
+                case "--checkpoint":
+                    checkpointFile = Paths.get(args[++i]);
+                    break;
+                case "--checkpoint-seconds":
+                    checkpointSeconds = Integer.parseInt(args[++i]);
+                    break;
+                case "--resume":
+                    resumeFile = Paths.get(args[++i]);
+                    break;
+                case "--deadline":
+                    deadlineMillis = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown argument: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        if (replayFile != null && recordFile != null) {
+            System.err.println("A replay cannot be recorded again");
+            System.exit(1);
+        }
+        if (replayFile != null && resumeFile != null) {
+            System.err.println("A replay cannot be resumed from a checkpoint");
+            System.exit(1);
+        }
+
+        Grid map = mapFile != null ? Grid.load(mapFile) : null;
+        GameEngine engine;
+        if (replayFile != null) {
+            ReplayPlayer player = null;
+            try {
+                player = new ReplayPlayer(replayFile, map);
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                System.exit(1);
+            }
+            if (!player.seek(Math.max(seek, player.getStartMoves()))) {
+                System.err.println("The replay only goes from move " + player.getStartMoves() + " to "
+                        + (player.getStartMoves() + player.getRecordedMoves()));
+                System.exit(1);
+            }
+            engine = player.getEngine();
+        } else if (resumeFile != null) {
+            GameSnapshot snapshot = null;
+            try {
+                snapshot = Checkpoint.read(resumeFile);
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                System.exit(1);
+            }
+            if (snapshot.getOutcome() == GameEngine.Outcome.STOPPED) {
+                snapshot = new GameSnapshot(snapshot.getXLength(), snapshot.getYLength(), snapshot.getWallHash(),
+                        snapshot.getCells(), snapshot.getNewTails(), snapshot.getFood(), snapshot.getRandomState(),
+                        snapshot.getMoves(), GameEngine.Outcome.RUNNING);
+            }
+            if (map != null && (map.getXLength() != snapshot.getXLength()
+                    || map.getYLength() != snapshot.getYLength())) {
+                System.err.println("The checkpoint was saved on a board of another size than the map");
+                System.exit(1);
+            }
+            Grid grid = map != null ? map : new Grid(snapshot.getXLength(), snapshot.getYLength());
+            if (grid.getWallHash() != snapshot.getWallHash()) {
+                System.err.println("The checkpoint was saved on a board with other walls than " + (map != null
+                        ? "the map" : "an open board, give the map it was saved on with --map"));
+                System.exit(1);
+            }
+            engine = new GameEngine(grid, 0);
+            engine.restore(snapshot);
+            engine.setStrategy(MoveStrategies.create(strategy, engine));
+            engine.setHumanControls(humanControls);
+        } else {
+            Grid grid = map != null ? map : Grid.parse(size);
+            engine = seed != null ? new GameEngine(grid, seed) : new GameEngine(grid);
+            engine.setStrategy(MoveStrategies.create(strategy, engine));
+            engine.setHumanControls(humanControls);
+        }
+
+        RecordingMetrics metrics = metricsFile != null || jmx ? new RecordingMetrics() : null;
+        if (metrics != null) {
+            engine.setMetrics(metrics);
+        }
+        if (jmx) {
+            metrics.registerMBean();
+        }
+        SafetyCache cache = new SafetyCache(cacheMegabytes * (1L << 20));
+        engine.setSafetyCache(cache);
+        DeadlineStrategy deadline = deadlineMillis > 0 && replayFile == null && !humanControls
+                ? new DeadlineStrategy(engine, strategy, (long) (deadlineMillis * 1e6)) : null;
+        if (deadline != null) {
+            engine.setStrategy(deadline);
+        }
+        ReplayRecorder recorder = recordFile != null ? new ReplayRecorder(engine, recordFile) : null;
+        Checkpointer checkpointer = checkpointFile != null
+                ? new Checkpointer(engine, checkpointFile, checkpointSeconds * 1000L) : null;
+
+        Path metricsOut = metricsFile;
+        game = new Game(engine, turbo, () -> {
+            if (checkpointer != null) {
+                checkpointer.moved();
+            }
+        }, () -> {
+            try {
+                if (recorder != null) {
+                    recorder.close();
+                }
+                if (checkpointer != null) {
+                    checkpointer.close();
+                }
+                if (deadline != null) {
+                    deadline.close();
+                    System.out.println(deadline);
+                }
+                if (metricsOut != null) {
+                    metrics.write(metricsOut);
+                }
+                if (cache.isEnabled()) {
+                    System.out.println(cache);
+                }
+            } catch (IOException e) {
+                System.err.println("Could not write the game's files: " + e);
+            }
+        });
     }
 }
@@ -0,0 +1,92 @@
+import java.nio.file.Paths;
+
+//The MapBenchmark compares how many cells A* expands on a map with and without distance fields (see DistanceFields),
+//which is what makes the difference between the two on a board with walls inside. It plays a game on the map with the
+//default strategy and, before every move, searches for a path from the snake's head to the food on that board with
+//one Pathfinder estimating distances straight to the goal and one going around the walls. Both find paths of the same
+//length, as both estimates are never more than the real distance, so only the work done differs.
+//Then it plays the same game twice more with the default strategy, once with and once without distance fields, and
+//counts every search the strategy makes, including the ones for the tail, to show what a whole move costs. The two
+//games can go different ways, as paths of the same length can be found in another order.
+//
+//usage: java MapBenchmark map [moves] [seed]
+public class MapBenchmark {
+    public static void main(String[] args) throws Exception {
+        Grid grid = Grid.load(Paths.get(args[0]));
+        int maxMoves = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        compareSearches(args[0], grid, maxMoves, seed);
+        playGame("manhattan", grid, maxMoves, seed, false);
+        playGame("distance fields", grid, maxMoves, seed, true);
+    }
+
+    private static void compareSearches(String name, Grid grid, int maxMoves, long seed) {
+        GameEngine engine = new GameEngine(grid, seed);
+        Pathfinder manhattan = new Pathfinder(engine, engine.getSnake());
+        manhattan.setUsingDistanceFields(false);
+        Pathfinder fields = new Pathfinder(engine, engine.getSnake());
+        fields.setUsingDistanceFields(true);
+        Histogram manhattanExpanded = new Histogram(), fieldsExpanded = new Histogram();
+        long manhattanNanos = 0, fieldsNanos = 0;
+        int searches = 0;
+
+        while (engine.getMoves() < maxMoves && !engine.isGameOver()) {
+            Cell head = engine.getSnake().getSnakeHead(), food = engine.getFood();
+            long start = System.nanoTime();
+            boolean found = manhattan.canFindPath(head, food);
+            long middle = System.nanoTime();
+            boolean foundWithFields = fields.canFindPath(head, food);
+            fieldsNanos += System.nanoTime() - middle;
+            manhattanNanos += middle - start;
+            if (found != foundWithFields || (found && manhattan.getPathLength(food) != fields.getPathLength(food))) {
+                throw new IllegalStateException("The searches found different paths on move " + engine.getMoves());
+            }
+            manhattanExpanded.record(manhattan.getExpanded());
+            fieldsExpanded.record(fields.getExpanded());
+            searches++;
+            engine.step();
+        }
+
+        DistanceFields distances = fields.getDistanceFields();
+        System.out.printf("%s (%dx%d, %d free cells): %d searches for the food over %d moves, game %s with length %d%n",
+                name, grid.getXLength(), grid.getYLength(), grid.getInteriorCellCount(), searches, engine.getMoves(),
+                engine.getOutcome(), engine.getSnake().getLength());
+        print("manhattan", manhattanExpanded, manhattanNanos, searches);
+        print("distance fields", fieldsExpanded, fieldsNanos, searches);
+        System.out.printf("distance fields: %d hits, %d misses, %d kept%n", distances.getHits(), distances.getMisses(),
+                distances.getSize());
+    }
+
+    private static void print(String name, Histogram expanded, long nanos, int searches) {
+        System.out.printf("%-16s cells expanded mean %.1f p50 %d p99 %d max %d, %.2f us per search%n", name,
+                expanded.getMean(), expanded.getPercentile(50), expanded.getPercentile(99), expanded.getMax(),
+                nanos / 1e3 / Math.max(1, searches));
+    }
+
+    //plays a game with the default strategy, built by hand so the distance fields can be turned on or off
+    private static void playGame(String name, Grid grid, int maxMoves, long seed, boolean usingDistanceFields) {
+        GameEngine engine = new GameEngine(grid, seed);
+        Pathfinder pathfinder = new Pathfinder(engine, engine.getSnake());
+        pathfinder.setUsingDistanceFields(usingDistanceFields);
+        engine.setStrategy(new PhasedStrategy(new MoveStrategy[] {new GreedyStrategy(pathfinder),
+                new ConservativeStrategy(pathfinder)}, new int[] {grid.getInteriorCellCount() / 2}));
+        RecordingMetrics metrics = new RecordingMetrics();
+        engine.setMetrics(metrics);
+
+        long start = System.nanoTime();
+        while (engine.getMoves() < maxMoves && engine.step()) {
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%-16s whole game: %d moves, %.2f searches and %.1f cells expanded per move, %.2f us per "
+                        + "move, game %s with length %d", name, engine.getMoves(),
+                (double) metrics.getSearches() / Math.max(1, engine.getMoves()),
+                metrics.getMeanNodesExpanded() * metrics.getSearches() / Math.max(1, engine.getMoves()),
+                nanos / 1e3 / Math.max(1, engine.getMoves()), engine.getOutcome(), engine.getSnake().getLength());
+        DistanceFields distances = pathfinder.getDistanceFields();
+        if (distances != null) {
+            System.out.printf(", %d field hits, %d misses", distances.getHits(), distances.getMisses());
+        }
+        System.out.println();
+    }
+}
@@ -0,0 +1,101 @@
+//Creates MoveStrategies from their names, so they can be chosen on the command line.
+//  greedy        GreedyStrategy
+//  conservative  ConservativeStrategy
+//  hamiltonian   HamiltonianStrategy
+//  lookahead     LookaheadStrategy playing out the default strategy, with a budget of 10 ms a move. lookahead-50 gives
+//                it 50 ms.
+//Names can be chained into phases (see PhasedStrategy) by putting the snake length at which the next phase starts
+//between them, for example greedy:0.5:conservative. A length below 1 is a fraction of the cells inside the walls.
+//hamiltonian can only be the first phase, as its cycle has to be followed from the first move on.
+public class MoveStrategies {
+    //When the snake's length is less than half the total amount of cells in the game grid, use a greedy pathfinding
+    //algorithm. When the snake's length is more than half, use a space-conserving pathfinding algorithm.
+    public static final String DEFAULT = "greedy:0.5:conservative";
+
+    private static final String LOOKAHEAD = "lookahead";
+    private static final int LOOKAHEAD_MILLIS = 10, LOOKAHEAD_DEPTH = 4, LOOKAHEAD_ROLLOUTS = 4;
+
+    public static MoveStrategy create(String name, GameState game) {
+        return create(name, game, false);
+    }
+
+    //timeAware turns on Pathfinder.setTimeAware for the greedy and conservative phases, which is experimental
+    public static MoveStrategy create(String name, GameState game, boolean timeAware) {
+        String[] parts = name.split(":");
+        if (parts.length % 2 == 0) {
+            throw new IllegalArgumentException("Strategy " + name + " has to end with a phase, not a length");
+        }
+        //phases share one pathfinder, which is only made once a phase needs it
+        Pathfinder[] pathFinder = new Pathfinder[1];
+        MoveStrategy[] phases = new MoveStrategy[(parts.length + 1) / 2];
+        int[] lengths = new int[phases.length - 1];
+
+        for (int i = 0; i < phases.length; i++) {
+            if (i > 0 && parts[2 * i].equals("hamiltonian")) {
+                throw new IllegalArgumentException("hamiltonian can only be the first phase, as the snake is not on "
+                        + "its cycle when a later phase starts, but " + name + " has it later");
+            }
+            phases[i] = createPhase(parts[2 * i], game, pathFinder, timeAware);
+        }
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = parseLength(parts[2 * i + 1], game);
+        }
+        if (phases.length == 1) {
+            return phases[0];
+        }
+        return new PhasedStrategy(phases, lengths);
+    }
+
+    private static MoveStrategy createPhase(String name, GameState game, Pathfinder[] pathFinder,
+                                            boolean timeAware) {
+        if (name.equals("hamiltonian")) {
+            return new HamiltonianStrategy(game.getGrid());
+        }
+        if (name.startsWith(LOOKAHEAD)) {
+            return createLookahead(name, game);
+        }
+        switch (name) {
+            case "greedy":
+                return new GreedyStrategy(getPathfinder(game, pathFinder, timeAware));
+            case "conservative":
+                return new ConservativeStrategy(getPathfinder(game, pathFinder, timeAware));
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+
+    private static MoveStrategy createLookahead(String name, GameState game) {
+        int millis = LOOKAHEAD_MILLIS;
+        if (!name.equals(LOOKAHEAD)) {
+            try {
+                millis = Integer.parseInt(name.substring(name.indexOf('-') + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Unknown strategy: " + name);
+            }
+            if (!name.startsWith(LOOKAHEAD + "-") || millis <= 0) {
+                throw new IllegalArgumentException("Unknown strategy: " + name);
+            }
+        }
+        return new LookaheadStrategy(game, DEFAULT, millis * 1_000_000L, LOOKAHEAD_DEPTH, LOOKAHEAD_ROLLOUTS);
+    }
+
+    private static Pathfinder getPathfinder(GameState game, Pathfinder[] pathFinder, boolean timeAware) {
+        if (pathFinder[0] == null) {
+            pathFinder[0] = new Pathfinder(game, game.getSnake());
+            pathFinder[0].setTimeAware(timeAware);
+        }
+        return pathFinder[0];
+    }
+
+    private static int parseLength(String length, GameState game) {
+        try {
+            double value = Double.parseDouble(length);
+            if (value < 1) {
+                return (int) (value * game.getGrid().getInteriorCellCount());
+            }
+            return (int) value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a snake length: " + length);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+//A MoveStrategy decides which cell the AI controlled snake moves to next. Strategies are created by name with
+//MoveStrategies.create. A strategy that returns null gives up, which stops the game.
+public interface MoveStrategy {
+    Cell getNextCell(GameState game);
+}
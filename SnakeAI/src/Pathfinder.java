@@ -1,134 +1,298 @@
 import java.util.*;
 
 public class Pathfinder {
-    private Game game;
-    private Snake snake;
+    //what getBoardKey adds for each question it asks the SafetyCache, and the answer for stalling
+    private static final long FURTHEST_FROM_GOAL = 0x5DEECE66DL, CONSERVATIVELY = 0x2545F4914F6CDD1DL;
+    private static final int STALL = -1;
+    //the memory for the distance fields of a map with inner walls
+    private static final long DISTANCE_FIELD_BYTES = 4 << 20;
 
-    private PriorityQueue<Cell> openSet;
-    private ArrayList<Cell> closedSet;
-    private HashMap<Cell, Cell> cameFrom;
+    private GameState game;
+    private SnakeView snake;
+
+    //the search state is kept in arrays indexed by cell id (x * yLength + y) and reused for every search
+    //gScore is amount of moves taken to get to that cell from the start.
+    //fScore is gScore + the estimated distance from the cell to the goal, see estimate
+    private int[] gScore, fScore, tailDistance;
+    private int[] cameFrom;
+    //instead of clearing the arrays before every search, each search gets a new generation number. A cell has been
+    //seen/closed in the current search only if its stamp equals the current generation.
+    private int[] seen, closed;
+    private int generation = 0;
+    private int searchStart;
+    //the amount of cells the last search expanded, and the most cells that were in its open set at once
+    private int expanded, peakOpenSetSize;
+    //when timeAware is on, a body cell only blocks the search if the tail will not have left it by the time the head
+    //gets there. startMoves is the amount of moves the snake needs to reach the start of the current search, or -1 if
+    //it is unknown, in which case the whole body blocks the search as usual.
+    //Searches for the tail always treat the whole body as blocking. Reaching where the tail is now is only safe if
+    //the snake can keep following the tail from there, which a path through the body's old cells can cut off.
+    //It is experimental and off unless a strategy is made with it (see MoveStrategies.create and Tournament
+    //--time-aware). Its paths are safe, but run close behind the tail and break the free space up, so it wins less.
+    private boolean timeAware = false;
+    private int startMoves;
+    //when there are distance fields, the distance from a cell to the food is estimated by going around the walls
+    //instead of straight there. goalDistances is the field of the current search's goal, or null if it has none.
+    private DistanceFields distances;
+    private int[] goalDistances;
+    private IndexedMinHeap openSet;
+    //the snake the current search plans for
+    private SnakeView view;
+    //reused when checking if a path to the food is safe
+    private int[] path;
+    private VirtualSnake virtualSnake;
+    //answers whether the tail and the food can be reached from the cells around the head
+    private RegionMap regions;
+    //the last path to the food that was found to be safe. It is followed without searching again until the food moves
+    //or the snake leaves it. plannedStep is the index of the next move in plannedPath, and plannedSequence is the
+    //snake's head sequence number when the path was planned, which goes up by one every move.
+    private int[] plannedPath;
+    private int plannedLength = 0, plannedStep;
+    private int plannedFood, plannedSequence;
+    private Grid grid;
 
     //This pathfinder mainly uses the a* path-finding algorithm
-    public Pathfinder(Game game, Snake snake) {
+    public Pathfinder(GameState game, SnakeView snake) {
         this.game = game;
         this.snake = snake;
-        cameFrom = new HashMap<>();
-
-        //creates a new comparator for sorting the openSet priorityQueue
-        //priority is lowest fScore. If fScore's are the same, prioritize the lowest gScore.
-        //If the gScores are also the same, prioritize the the cell furthest from the snake tail, so that the snake
-        //does not accidentally cut its path to the tail off while going for the food.
-        Comparator<Cell> fCostComparator = new Comparator<Cell>() {
-            @Override
-            public int compare(Cell o1, Cell o2) {
-                if (o1.getFScore() == o2.getFScore()) {
-                    if (o1.getGScore() == o2.getGScore()) {
-                        //prioritize whichever is furthest away from snake tail
-                        return o2.getDistanceTo(snake.getSnakeTail()) - o1.getDistanceTo(snake.getSnakeTail());
-                    }
-                    //prioritize whichever is closer to goal
-                    //this is a simplified expression of o1.fScore - o1.gScore - (o2.fScore - o2.gScore),
-                    //but o1fScore == o2fScore
-                    return o2.getGScore() - o1.getGScore();
-                }
-                //prioritize whichever has smallest sum of distance taken to get to that cell + distance to goal
-                return o1.getFScore() - o2.getFScore();
-            }
-        };
-        openSet = new PriorityQueue<>(fCostComparator);
-        closedSet = new ArrayList<>();
+
+        grid = game.getGrid();
+        int cells = grid.getCellCount();
+        gScore = new int[cells];
+        fScore = new int[cells];
+        tailDistance = new int[cells];
+        cameFrom = new int[cells];
+        seen = new int[cells];
+        closed = new int[cells];
+        path = new int[cells];
+        plannedPath = new int[cells];
+        virtualSnake = new VirtualSnake(game);
+        regions = new RegionMap(game);
+
+        //priority is lowest fScore. If fScore's are the same, prioritize the highest gScore, which is the cell closest
+        //to the goal. If the gScores are also the same, prioritize the cell furthest from the snake tail, so that the
+        //snake does not accidentally cut its path to the tail off while going for the food (see IndexedMinHeap).
+        openSet = new IndexedMinHeap(cells, fScore, gScore, tailDistance);
+        setUsingDistanceFields(grid.hasInnerWalls());
     }
 
     //This pathfinding algorithm is an implementation of the A* pathfinding algorithm
     public boolean canFindPath(Cell start, Cell goal) {
-        Cell current;
+        return canFindPath(start, goal, snake);
+    }
+
+    //searches for a path with the snake positioned as the view shows it
+    public boolean canFindPath(Cell start, Cell goal, SnakeView view) {
+        PlannerMetrics metrics = game.getMetrics();
+        if (!metrics.isRecording()) {
+            return search(start, goal, view);
+        }
+        long startTime = System.nanoTime();
+        boolean found = search(start, goal, view);
+        metrics.searchFinished(expanded, peakOpenSetSize, System.nanoTime() - startTime);
+        return found;
+    }
 
-        cameFrom.clear();
-        closedSet.clear();
+    private boolean search(Cell start, Cell goal, SnakeView view) {
+        int current;
+        int goalId = goal.getId();
+
+        this.view = view;
+        if (!timeAware || goal == view.getSnakeTail()) {
+            startMoves = -1;
+        } else if (start == view.getSnakeHead()) {
+            startMoves = 0;
+        } else {
+            startMoves = start.getDistanceTo(view.getSnakeHead()) == 1 ? 1 : -1;
+        }
+        nextGeneration();
+        goalDistances = getField(goalId);
         openSet.clear();
-        start.setGScore(0);
-        //fScore is gScore + distance to goal
-        start.setFScore(start.getGScore() + start.getDistanceTo(goal));
-        openSet.add(start);
+        searchStart = start.getId();
+        open(searchStart, 0, goal);
+        cameFrom[searchStart] = -1;
+        expanded = 0;
+        peakOpenSetSize = 1;
 
         while (!openSet.isEmpty()) {
             //set current to the most prioritized cell in the neighbour cells of all already seen cells
             current = openSet.remove();
-            if (current == goal) {
+            if (current == goalId) {
                 return true;
             }
-            closedSet.add(current);
+            closed[current] = generation;
+            expanded++;
             addNeighbours(current, goal);
+            peakOpenSetSize = Math.max(peakOpenSetSize, openSet.size());
         }
         return false;
     }
 
-    public Stack<Cell> reconstructPathFrom(Cell current) {
-        //retrace steps found from canFindPath from the goal to 1 cell away from the start
-        Stack<Cell> path = new Stack<>();
-        while (cameFrom.containsKey(current)) {
-            path.add(current);
-            current = cameFrom.get(current);
+    private void nextGeneration() {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    //retraces the path found by the last successful canFindPath from the goal back to 1 cell away from the start.
+    //The path is written into the array starting with the first move, and the amount of moves is returned.
+    public int reconstructPathTo(Cell goal, int[] path) {
+        int length = gScore[goal.getId()];
+        int id = goal.getId();
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = id;
+            id = cameFrom[id];
+        }
+        return length;
+    }
+
+    //returns the first cell after the start on the path found by the last successful canFindPath to this goal
+    public Cell getFirstStep(Cell goal) {
+        int id = goal.getId();
+        while (cameFrom[id] != searchStart) {
+            id = cameFrom[id];
         }
-        return path;
+        return game.getCell(id);
     }
 
-    public void addNeighbours(Cell current, Cell goal) {
+    //returns the amount of moves in the path found by the last successful canFindPath to this goal
+    public int getPathLength(Cell goal) {
+        return gScore[goal.getId()];
+    }
+
+    public void addNeighbours(int current, Cell goal) {
         int tempGScore;
-        Cell[] neighbours = getNeighbours(current);
+        int goalId = goal.getId();
+        //the neighbouring cells
         for (int i = 0; i < 4; i++) {
+            int neighbour = grid.getOpenNeighbour(current, i);
+            if (neighbour < 0) {
+                continue;
+            }
             //make sure the neighbour cell is ok to look at. (either is the goal itself, is a legal cell, and make sure
             //it is a new cell that hasn't been accessed yet
-            if ((neighbours[i] == goal || game.isInLegalCell(neighbours[i])) && !closedSet.contains(neighbours[i])
-                    && neighbours[i] != snake.snakeHead) {
-                //gScore to the neighbour is the steps it took to get to the current cell + 1
-                tempGScore = current.getGScore() + 1;
-
-                if (openSet.contains(neighbours[i]) && tempGScore >= neighbours[i].getGScore()) {
-                    //in this scenario, the neighbouring cell has already been seen (but not accessed) with less steps
-                    continue;
-                }
-                neighbours[i].setGScore(tempGScore);
-                neighbours[i].setFScore(tempGScore + neighbours[i].getDistanceTo(goal));
-                if (openSet.contains(neighbours[i])) {
-                    cameFrom.replace(neighbours[i], current);
+            //gScore to the neighbour is the steps it took to get to the current cell + 1
+            tempGScore = gScore[current] + 1;
+            if ((neighbour == goalId || (!isBlocked(neighbour, tempGScore) && !game.isWall(neighbour)))
+                    && closed[neighbour] != generation && neighbour != view.getSnakeHead().getId()) {
+                if (seen[neighbour] == generation) {
+                    if (tempGScore >= gScore[neighbour]) {
+                        //in this scenario, the neighbouring cell has already been seen (but not accessed) with less
+                        //steps
+                        continue;
+                    }
+                    gScore[neighbour] = tempGScore;
+                    fScore[neighbour] = tempGScore + estimate(neighbour, goalId);
+                    openSet.decreaseKey(neighbour);
                 } else {
-                    openSet.add(neighbours[i]);
-                    cameFrom.put(neighbours[i], current);
+                    open(neighbour, tempGScore, goal);
                 }
+                cameFrom[neighbour] = current;
             }
         }
     }
 
-    //returns the neighbouring cells
-    public Cell[] getNeighbours(Cell current) {
-        return new Cell[]{Game.getCell(current.getX() + 1, current.getY()),
-                Game.getCell(current.getX() - 1, current.getY()), Game.getCell(current.getX(), current.getY() + 1),
-                Game.getCell(current.getX(), current.getY() - 1)};
+    //returns whether the snake's body is in the way of reaching the cell in g moves from the start
+    private boolean isBlocked(int id, int g) {
+        if (!view.isOccupied(id)) {
+            return false;
+        }
+        return startMoves < 0 || startMoves + g < view.getMovesUntilFree(id);
+    }
+
+    //adds a cell that has not been seen yet in this search to the open set
+    private void open(int id, int g, Cell goal) {
+        seen[id] = generation;
+        gScore[id] = g;
+        //fScore is gScore + distance to goal
+        fScore[id] = g + estimate(id, goal.getId());
+        tailDistance[id] = grid.getDistance(id, view.getSnakeTail().getId());
+        openSet.add(id);
+    }
+
+    //the amount of moves from the cell to the goal if the snake was not in the way, or if the walls were not either
+    //without distance fields
+    private int estimate(int id, int goal) {
+        return goalDistances != null ? goalDistances[id] : grid.getDistance(id, goal);
+    }
+
+    //the amount of moves from the cell to the goal going around the walls if there is a distance field to it, or
+    //straight there otherwise
+    private int getDistance(int id, int goal) {
+        int[] field = getField(goal);
+        return field != null ? field[id] : grid.getDistance(id, goal);
+    }
+
+    //the distance field to the goal if there are distance fields and the goal is the food, or null. The food stays
+    //where it is for many searches, so its field pays for the breadth first search over the board that makes it. The
+    //tail, which the other searches go to, moves on every move, so its field would only be used once and push the
+    //food's field out of the DistanceFields.
+    private int[] getField(int goal) {
+        return distances != null && goal == game.getFood().getId() ? distances.get(goal) : null;
+    }
+
+    public boolean isTimeAware() {
+        return timeAware;
+    }
+
+    public void setTimeAware(boolean timeAware) {
+        this.timeAware = timeAware;
+    }
+
+    public boolean isUsingDistanceFields() {
+        return distances != null;
+    }
+
+    //on by default on a board with inner walls. Without them the distance fields are the same as the distance between
+    //the cells' coordinates, so they only cost memory.
+    public void setUsingDistanceFields(boolean usingDistanceFields) {
+        if (!usingDistanceFields) {
+            distances = null;
+        } else if (distances == null) {
+            distances = new DistanceFields(grid, DISTANCE_FIELD_BYTES);
+        }
+    }
+
+    public DistanceFields getDistanceFields() {
+        return distances;
+    }
+
+    //the amount of cells the last search expanded
+    public int getExpanded() {
+        return expanded;
     }
 
     //This algorithm finds the shortest path to the goal, and makes sure it can reach it's own tail after each move to
     //stay safe.
     public Cell getNextCell(Cell start, Cell goal) {
+        if (isFollowingPlan(start, goal)) {
+            game.getMetrics().planFollowed();
+            return game.getCell(plannedPath[plannedStep++]);
+        }
+        plannedLength = 0;
+
         if (canFindPath(start, goal)) {
-            //stores current snake info to reset the snake later
-            ArrayList<Cell> nextCellCopy = new ArrayList<>(snake.getNextCell());
-            Queue<Cell> bodyCopy = new LinkedList<>(snake.getBody());
-            Cell snakeHeadCopy = snake.snakeHead;
-            Cell snakeTailCopy = snake.getSnakeTail();
-            int newTailsCopy = snake.getNewTails();
-            //temporarily move the snake to the food and check if it can find its tail after moving
-            Stack<Cell> path = reconstructPathFrom(goal);
-            while (!path.isEmpty()) {
-                snake.addNextCellByAI(path.pop());
+            Cell possibleMove = getFirstStep(goal);
+            //move a virtual copy of the snake to the food and check if it can find its tail after moving. The live
+            //snake is never touched.
+            PlannerMetrics metrics = game.getMetrics();
+            long startTime = metrics.isRecording() ? System.nanoTime() : 0;
+            virtualSnake.reset(snake);
+            int pathLength = reconstructPathTo(goal, path);
+            for (int i = 0; i < pathLength; i++) {
+                virtualSnake.moveTo(game.getCell(path[i]));
             }
-            while (snake.getNextCellsSize() > 0) {
-                snake.moveAI();
+            if (metrics.isRecording()) {
+                metrics.virtualMoveFinished(pathLength, System.nanoTime() - startTime);
             }
 
-            Cell possibleMove = reconstructPathFrom(goal).pop();
             boolean shouldMove;
-            if ((snake.getBodyLength() == 0 || snake.snakeHead.getDistanceTo(snake.getSnakeTail()) > 1) && canFindPath(snake.snakeHead, snake.getSnakeTail())) {
+            Cell virtualHead = virtualSnake.getSnakeHead(), virtualTail = virtualSnake.getSnakeTail();
+            if ((virtualSnake.getBodyLength() == 0 || virtualHead.getDistanceTo(virtualTail) > 1)
+                    && canFindPath(virtualHead, virtualTail, virtualSnake)) {
                 //the distance from snakeHead to snakeTail has to be greater than 1 after eating so that there is no
                 //chance for the only possible next move to be running into its own tail and dying
                 shouldMove = true;
@@ -136,14 +300,15 @@ public class Pathfinder {
                 shouldMove = false;
             }
 
-            //reset snake back to original position before moving
-            snake.setNextCell(nextCellCopy);
-            snake.setBody(bodyCopy);
-            snake.setSnakeTail(snakeTailCopy);
-            snake.snakeHead = snakeHeadCopy;
-            snake.setNewTails(newTailsCopy);
-
             if (shouldMove) {
+                //keep the path so the next moves do not have to search again
+                int[] swap = plannedPath;
+                plannedPath = path;
+                path = swap;
+                plannedLength = pathLength;
+                plannedStep = 1;
+                plannedFood = goal.getId();
+                plannedSequence = snake.getHeadSequence();
                 return possibleMove;
             }
             //cant reach tail after moving to food
@@ -155,64 +320,150 @@ public class Pathfinder {
         return getCellFurthestFromGoal(start, goal);
     }
 
+    //The planned path is still safe if the snake has made exactly the planned moves since it was planned and the food
+    //is still in the same place. Moving along the path only frees cells the path does not need any more, and the snake
+    //ends up at the food in exactly the position that was checked for reaching its tail, so nothing has to be
+    //checked again except that the next cell is still free. In an Arena other snakes count as walls and can move in
+    //the way at any time, so walls are checked too.
+    private boolean isFollowingPlan(Cell start, Cell goal) {
+        if (plannedStep >= plannedLength || goal.getId() != plannedFood
+                || snake.getHeadSequence() - plannedSequence != plannedStep
+                || start.getId() != plannedPath[plannedStep - 1]) {
+            return false;
+        }
+        int next = plannedPath[plannedStep];
+        return !game.isWall(next) && (!snake.isOccupied(next) || (timeAware && snake.getMovesUntilFree(next) <= 1));
+    }
+
     public Cell getCellFurthestFromGoal(Cell current, Cell goal) {
-        Cell[] neighbours = getNeighbours(current);
+        game.getMetrics().stalled();
+        SafetyCache cache = game.getSafetyCache();
+        long key = getBoardKey(current, goal, FURTHEST_FROM_GOAL);
+        int direction = cache.get(key);
+        Cell next;
+        if (direction == SafetyCache.MISSING) {
+            next = findCellFurthestFromGoal(current, goal);
+            cache.put(key, grid.getDirection(current.getId(), next.getId()));
+        } else {
+            next = game.getCell(grid.getNeighbour(current.getId(), direction));
+        }
+        //the snake only ever moves onto its tail when it follows it, as the tail is not a legal cell otherwise
+        if (next == snake.getSnakeTail()) {
+            game.getMetrics().tailFollowed();
+        }
+        return next;
+    }
+
+    private Cell findCellFurthestFromGoal(Cell current, Cell goal) {
         int maxDistance = 0;
         Cell maxDistanceCell = null;
+        int tail = snake.getSnakeTail().getId();
+        regions.reset(snake);
 
         //find which neighbouring cell is furthest away from the goal. The neighbouring cell should only be considered
         //if the snake can still find its own tail after moving to that cell
         for (int i = 0; i < 4; i++) {
-            if (game.isInLegalCell(neighbours[i]) && neighbours[i].getDistanceTo(goal) > maxDistance) {
-                if (canFindPath(neighbours[i], snake.getSnakeTail())) {
-                    maxDistanceCell = neighbours[i];
-                    maxDistance = neighbours[i].getDistanceTo(goal);
+            int neighbour = grid.getOpenNeighbour(current.getId(), i);
+            if (neighbour < 0) {
+                continue;
+            }
+            Cell next = game.getCell(neighbour);
+            int distance = getDistance(neighbour, goal.getId());
+            if (game.isInLegalCell(next) && distance > maxDistance) {
+                if (regions.canReach(next.getId(), tail)) {
+                    maxDistanceCell = next;
+                    maxDistance = distance;
                 }
             }
         }
         //No cell is found sometimes when the snake is next to its tail. In these cases, the snake should follow its
         //tail. It will never hit itself by following its tail.
         if (maxDistanceCell ==  null) {
-            return snake.getSnakeTail();
+            if (current.getDistanceTo(snake.getSnakeTail()) == 1) {
+                return snake.getSnakeTail();
+            }
+            //the tail is out of reach, so the snake is trapped. It moves to any free neighbour to last as long as it
+            //can, and if there is none it has to die.
+            for (int i = 0; i < 4; i++) {
+                int neighbour = grid.getOpenNeighbour(current.getId(), i);
+                if (neighbour >= 0 && game.isInLegalCell(game.getCell(neighbour))) {
+                    return game.getCell(neighbour);
+                }
+            }
+            return game.getCell(grid.getNeighbour(current.getId(), 0));
         }
         return maxDistanceCell;
     }
 
     //This algorithm is based on efficiently filling up space on the game grid so that future food spawns are easy
-    //to get. This is achieved by having the snake distance itself from its tail, prioritizing the cell that will take
-    //the most amount of moves to get to its tail. The snake needs to be able to see the food at all times too.
+    //to get. This is achieved by having the snake move into the biggest open region it can, and within a region
+    //distance itself from its tail, prioritizing the cell that will take the most amount of moves to get to its tail.
+    //The snake needs to be able to see the food at all times too.
+    //Reaching the tail or food and the size of the space on each side all come from one flood fill of the board.
     public Cell getNextCellConservatively(Cell start, Cell goal) {
-        Cell[] neighbours = getNeighbours(start);
-        //maxDistance to Tail
+        SafetyCache cache = game.getSafetyCache();
+        long key = getBoardKey(start, goal, CONSERVATIVELY);
+        int direction = cache.get(key);
+        if (direction == SafetyCache.MISSING) {
+            Cell next = findNextCellConservatively(start, goal);
+            direction = next == null ? STALL : grid.getDirection(start.getId(), next.getId());
+            cache.put(key, direction);
+        }
+        if (direction == STALL) {
+            return getCellFurthestFromGoal(start, goal);
+        }
+        return game.getCell(grid.getNeighbour(start.getId(), direction));
+    }
+
+    //returns null if no neighbour is safe and close enough to the food, in which case the snake has to stall
+    private Cell findNextCellConservatively(Cell start, Cell goal) {
+        //the largest region, and within it the maxDistance to Tail
+        int maxRegionSize = 0;
         int maxDistance = 0;
-        int distanceToTail;
+        int regionSize, distanceToTail;
         Cell maxDistanceCell = null;
         boolean canFindTail, nextCellIsGoal;
+        int tail = snake.getSnakeTail().getId();
+        regions.reset(snake);
 
         for (int i = 0; i < 4; i++) {
-            if (game.isInLegalCell(neighbours[i])) {
-                if (neighbours[i] == goal) {
+            int neighbour = grid.getOpenNeighbour(start.getId(), i);
+            if (neighbour >= 0 && game.isInLegalCell(game.getCell(neighbour))) {
+                Cell next = game.getCell(neighbour);
+                if (next == goal) {
                     nextCellIsGoal = true;
                 } else {
                     nextCellIsGoal = false;
                 }
-                canFindTail = canFindPath(neighbours[i], snake.getSnakeTail());
+                canFindTail = regions.canReach(neighbour, tail);
 
-                if (nextCellIsGoal && canFindTail && neighbours[i].getDistanceTo(snake.getSnakeTail()) > 1) {
-                        return neighbours[i];
+                if (nextCellIsGoal && canFindTail && next.getDistanceTo(snake.getSnakeTail()) > 1) {
+                        return next;
+                }
+                //if tail can be found and the space on this side or the length of the path to the tail is bigger
+                //than any previously calculated and the food can still be found, set this cell to the max distance
+                //cell from tail
+                if (!canFindTail || !regions.canReach(neighbour, goal.getId())) {
+                    continue;
                 }
-                //if tail can be found and the length of this path to the tail is longer than any previously calculated
-                //and the food can still be found, set this cell to the max distance cell from tail
-                distanceToTail = reconstructPathFrom(snake.getSnakeTail()).size();
-                if (distanceToTail > maxDistance && canFindTail && canFindPath(neighbours[i], goal)) {
-                    maxDistanceCell = neighbours[i];
+                regionSize = regions.getRegionSize(neighbour);
+                distanceToTail = regions.getDistanceToTail(neighbour);
+                if (regionSize > maxRegionSize || (regionSize == maxRegionSize && distanceToTail > maxDistance)) {
+                    maxDistanceCell = next;
+                    maxRegionSize = regionSize;
                     maxDistance = distanceToTail;
                 }
             }
         }
-        if (maxDistanceCell == null) {
-            return getCellFurthestFromGoal(start, goal);
-        }
         return maxDistanceCell;
     }
+
+    //the key of a question about the board in the SafetyCache. The answer only depends on the cells the snake covers,
+    //where the snake's head and tail and the goal are, and which question is asked. The head, tail and goal keys are
+    //rotated by different amounts, so swapping them gives a different key.
+    private long getBoardKey(Cell head, Cell goal, long question) {
+        return snake.getOccupancyHash() ^ Long.rotateLeft(Grid.getZobristKey(head.getId()), 16)
+                ^ Long.rotateLeft(Grid.getZobristKey(snake.getSnakeTail().getId()), 32)
+                ^ Long.rotateLeft(Grid.getZobristKey(goal.getId()), 48) ^ question;
+    }
 }
@@ -0,0 +1,24 @@
+//Switches between strategies as the snake grows. phases[i] is used while the snake's body is shorter than lengths[i],
+//and the last phase is used once it is longer than all of them.
+public class PhasedStrategy implements MoveStrategy {
+    private MoveStrategy[] phases;
+    private int[] lengths;
+
+    public PhasedStrategy(MoveStrategy[] phases, int[] lengths) {
+        if (phases.length != lengths.length + 1) {
+            throw new IllegalArgumentException("Need one more phase than lengths");
+        }
+        this.phases = phases;
+        this.lengths = lengths;
+    }
+
+    @Override
+    public Cell getNextCell(GameState game) {
+        int length = game.getSnake().getBodyLength();
+        int phase = 0;
+        while (phase < lengths.length && length >= lengths[phase]) {
+            phase++;
+        }
+        return phases[phase].getNextCell(game);
+    }
+}
@@ -0,0 +1,43 @@
+//PlannerMetrics is told what the Pathfinder does on every move, to find out which part of planning the time goes to.
+//Every method does nothing by default, and NONE, which every game starts with, keeps nothing at all. Searches are
+//only timed if isRecording returns true. RecordingMetrics keeps counters and histograms of everything.
+public interface PlannerMetrics {
+    PlannerMetrics NONE = new PlannerMetrics() {
+    };
+
+    default boolean isRecording() {
+        return false;
+    }
+
+    //called by the engine once the AI has picked its move
+    default void moveFinished() {
+    }
+
+    //an A* search finished after expanding this many cells, with at most peakOpenSetSize cells in its open set
+    default void searchFinished(int expanded, int peakOpenSetSize, long nanos) {
+    }
+
+    //a virtual snake was moved along a path to the food to check whether the tail can be reached from its end
+    default void virtualMoveFinished(int pathLength, long nanos) {
+    }
+
+    //the move was taken from the path planned on an earlier move, without searching
+    default void planFollowed() {
+    }
+
+    //there was no safe path to the food, so the snake stalls by moving away from it
+    default void stalled() {
+    }
+
+    //while stalling, no neighbour could reach the tail, so the snake moves onto its tail
+    default void tailFollowed() {
+    }
+
+    //the game waited this long for its move from a planner on another thread (see DeadlineStrategy)
+    default void moveWaited(long nanos) {
+    }
+
+    //the planner on another thread missed the deadline for a move, so a fallback move was made instead
+    default void deadlineMissed() {
+    }
+}
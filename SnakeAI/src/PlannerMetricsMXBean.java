@@ -0,0 +1,26 @@
+//The live view of RecordingMetrics over JMX
+public interface PlannerMetricsMXBean {
+    long getMoves();
+
+    long getSearches();
+
+    long getPlansFollowed();
+
+    long getStalls();
+
+    long getTailFollows();
+
+    double getMeanNodesExpanded();
+
+    long getMaxOpenSetSize();
+
+    double getMeanSearchMicros();
+
+    long getP99SearchMicros();
+
+    double getMeanVirtualMoveMicros();
+
+    long getDeadlineMisses();
+
+    long getP99WaitMicros();
+}
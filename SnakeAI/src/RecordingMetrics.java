@@ -0,0 +1,238 @@
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+//RecordingMetrics keeps counters and histograms of everything the Pathfinder reports (see PlannerMetrics). It is
+//written to by the thread playing the game only. It can be written to a JSON or CSV file when the game is over, and
+//registered as an MXBean to watch it live, in which case the values read may be a move behind.
+//Times are recorded in nanoseconds, as they are measured, and only reported in microseconds.
+public class RecordingMetrics implements PlannerMetrics, PlannerMetricsMXBean {
+    private static final double NANOS_PER_MICRO = 1e3;
+
+    private long moves = 0, searches = 0, plansFollowed = 0, stalls = 0, tailFollows = 0, deadlineMisses = 0;
+    private int searchesThisMove = 0;
+
+    private final Histogram searchesPerMove = new Histogram();
+    private final Histogram nodesExpanded = new Histogram();
+    private final Histogram peakOpenSetSize = new Histogram();
+    private final Histogram searchNanos = new Histogram();
+    private final Histogram virtualMoveNanos = new Histogram();
+    private final Histogram waitNanos = new Histogram();
+
+    @Override
+    public boolean isRecording() {
+        return true;
+    }
+
+    @Override
+    public void moveFinished() {
+        moves++;
+        searchesPerMove.record(searchesThisMove);
+        searchesThisMove = 0;
+    }
+
+    @Override
+    public void searchFinished(int expanded, int peakOpenSetSize, long nanos) {
+        searches++;
+        searchesThisMove++;
+        nodesExpanded.record(expanded);
+        this.peakOpenSetSize.record(peakOpenSetSize);
+        searchNanos.record(nanos);
+    }
+
+    @Override
+    public void virtualMoveFinished(int pathLength, long nanos) {
+        virtualMoveNanos.record(nanos);
+    }
+
+    @Override
+    public void planFollowed() {
+        plansFollowed++;
+    }
+
+    @Override
+    public void stalled() {
+        stalls++;
+    }
+
+    @Override
+    public void tailFollowed() {
+        tailFollows++;
+    }
+
+    @Override
+    public void moveWaited(long nanos) {
+        waitNanos.record(nanos);
+    }
+
+    @Override
+    public void deadlineMissed() {
+        deadlineMisses++;
+    }
+
+    //registers these metrics with the platform MBean server, for example to watch them in JConsole
+    public void registerMBean() throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("SnakeAI:type=PlannerMetrics"));
+    }
+
+    //writes the metrics as JSON if the file name ends in .json, and as CSV otherwise
+    public void write(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            if (file.toString().endsWith(".json")) {
+                writeJson(out);
+            } else {
+                writeCsv(out);
+            }
+        }
+    }
+
+    public void writeJson(PrintWriter out) {
+        out.println("{");
+        for (Map.Entry<String, Long> counter : getCounters().entrySet()) {
+            out.println("  \"" + counter.getKey() + "\": " + counter.getValue() + ",");
+        }
+        boolean first = true;
+        for (Map.Entry<String, Histogram> entry : getHistograms().entrySet()) {
+            Histogram histogram = entry.getValue();
+            out.print(first ? "" : ",\n");
+            out.printf(Locale.ROOT, "  \"%s\": {\"count\": %d, \"sum\": %d, \"mean\": %.3f, \"p50\": %d, \"p90\": %d, "
+                            + "\"p99\": %d, \"max\": %d}", entry.getKey(), histogram.getCount(), histogram.getSum(),
+                    histogram.getMean(), histogram.getPercentile(50), histogram.getPercentile(90),
+                    histogram.getPercentile(99), histogram.getMax());
+            first = false;
+        }
+        for (Map.Entry<String, Histogram> entry : getTimeHistograms().entrySet()) {
+            Histogram histogram = entry.getValue();
+            out.print(first ? "" : ",\n");
+            out.printf(Locale.ROOT, "  \"%s\": {\"count\": %d, \"sum\": %.3f, \"mean\": %.3f, \"p50\": %.3f, "
+                            + "\"p90\": %.3f, \"p99\": %.3f, \"max\": %.3f}", entry.getKey(), histogram.getCount(),
+                    toMicros(histogram.getSum()), toMicros(histogram.getMean()), toMicros(histogram.getPercentile(50)),
+                    toMicros(histogram.getPercentile(90)), toMicros(histogram.getPercentile(99)),
+                    toMicros(histogram.getMax()));
+            first = false;
+        }
+        out.println();
+        out.println("}");
+    }
+
+    //counters are written as a row with only the count filled in
+    public void writeCsv(PrintWriter out) {
+        out.println("metric,count,sum,mean,p50,p90,p99,max");
+        for (Map.Entry<String, Long> counter : getCounters().entrySet()) {
+            out.println(counter.getKey() + "," + counter.getValue() + ",,,,,,");
+        }
+        for (Map.Entry<String, Histogram> entry : getHistograms().entrySet()) {
+            Histogram histogram = entry.getValue();
+            out.printf(Locale.ROOT, "%s,%d,%d,%.3f,%d,%d,%d,%d%n", entry.getKey(), histogram.getCount(),
+                    histogram.getSum(), histogram.getMean(), histogram.getPercentile(50), histogram.getPercentile(90),
+                    histogram.getPercentile(99), histogram.getMax());
+        }
+        for (Map.Entry<String, Histogram> entry : getTimeHistograms().entrySet()) {
+            Histogram histogram = entry.getValue();
+            out.printf(Locale.ROOT, "%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n", entry.getKey(), histogram.getCount(),
+                    toMicros(histogram.getSum()), toMicros(histogram.getMean()), toMicros(histogram.getPercentile(50)),
+                    toMicros(histogram.getPercentile(90)), toMicros(histogram.getPercentile(99)),
+                    toMicros(histogram.getMax()));
+        }
+    }
+
+    private Map<String, Long> getCounters() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put("moves", moves);
+        counters.put("searches", searches);
+        counters.put("plansFollowed", plansFollowed);
+        counters.put("stalls", stalls);
+        counters.put("tailFollows", tailFollows);
+        counters.put("deadlineMisses", deadlineMisses);
+        return counters;
+    }
+
+    private Map<String, Histogram> getHistograms() {
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        histograms.put("searchesPerMove", searchesPerMove);
+        histograms.put("nodesExpanded", nodesExpanded);
+        histograms.put("peakOpenSetSize", peakOpenSetSize);
+        return histograms;
+    }
+
+    //the histograms of times in nanoseconds, under the names they are reported with in microseconds
+    private Map<String, Histogram> getTimeHistograms() {
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        histograms.put("searchMicros", searchNanos);
+        histograms.put("virtualMoveMicros", virtualMoveNanos);
+        histograms.put("waitMicros", waitNanos);
+        return histograms;
+    }
+
+    private static double toMicros(double nanos) {
+        return nanos / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getMoves() {
+        return moves;
+    }
+
+    @Override
+    public long getSearches() {
+        return searches;
+    }
+
+    @Override
+    public long getPlansFollowed() {
+        return plansFollowed;
+    }
+
+    @Override
+    public long getStalls() {
+        return stalls;
+    }
+
+    @Override
+    public long getTailFollows() {
+        return tailFollows;
+    }
+
+    @Override
+    public double getMeanNodesExpanded() {
+        return nodesExpanded.getMean();
+    }
+
+    @Override
+    public long getMaxOpenSetSize() {
+        return peakOpenSetSize.getMax();
+    }
+
+    @Override
+    public double getMeanSearchMicros() {
+        return toMicros(searchNanos.getMean());
+    }
+
+    @Override
+    public long getP99SearchMicros() {
+        return (long) toMicros(searchNanos.getPercentile(99));
+    }
+
+    @Override
+    public double getMeanVirtualMoveMicros() {
+        return toMicros(virtualMoveNanos.getMean());
+    }
+
+    @Override
+    public long getDeadlineMisses() {
+        return deadlineMisses;
+    }
+
+    @Override
+    public long getP99WaitMicros() {
+        return (long) toMicros(waitNanos.getPercentile(99));
+    }
+}
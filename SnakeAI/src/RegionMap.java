@@ -0,0 +1,136 @@
+import java.util.Arrays;
+
+//The RegionMap splits the free cells of the board (not a wall, not the snake) into connected regions with flood fills.
+//After reset is called for a move, whether a cell can reach another one, how big the region on its side is and how
+//far it is from the snake's tail are all constant time lookups. Regions are only flooded when they are first asked
+//about, so each free cell is visited at most once per move.
+public class RegionMap {
+    private GameState game;
+    private SnakeView snake;
+    private Grid grid;
+
+    //region[id] is the region label of a free cell, only valid if regionStamp[id] equals the current generation.
+    //regionSize[label] is the amount of cells in the region.
+    private int[] region, regionStamp, regionSize;
+    private int regionCount;
+    //tailDistance[id] is the amount of moves from the cell to the tail, only valid if tailStamp[id] equals the current
+    //generation. It is filled in by one breadth first search from the tail the first time it is needed.
+    private int[] tailDistance, tailStamp;
+    private boolean tailSearched;
+    private int generation = 0;
+    private int[] queue;
+
+    public RegionMap(GameState game) {
+        this.game = game;
+        grid = game.getGrid();
+        int cells = grid.getCellCount();
+        region = new int[cells];
+        regionStamp = new int[cells];
+        regionSize = new int[cells];
+        tailDistance = new int[cells];
+        tailStamp = new int[cells];
+        queue = new int[cells];
+    }
+
+    //forgets all regions, to be called whenever the snake has moved
+    public void reset(SnakeView snake) {
+        this.snake = snake;
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(regionStamp, 0);
+            Arrays.fill(tailStamp, 0);
+            generation = 1;
+        }
+        regionCount = 0;
+        tailSearched = false;
+    }
+
+    //free cells are the ones the snake could move through. The head is not free, since it will be part of the body.
+    public boolean isFree(int id) {
+        return !game.isWall(id) && !snake.isOccupied(id) && id != snake.getSnakeHead().getId();
+    }
+
+    //returns the region label of a free cell
+    public int getRegion(int id) {
+        if (regionStamp[id] != generation) {
+            flood(id, regionCount++);
+        }
+        return region[id];
+    }
+
+    //returns the amount of free cells in the cell's region, or 0 if the cell is not free
+    public int getRegionSize(int id) {
+        return isFree(id) ? regionSize[getRegion(id)] : 0;
+    }
+
+    //returns whether a free cell can reach the goal without going through the snake. The goal itself does not have to
+    //be free, which is the case when it is the tail.
+    public boolean canReach(int start, int goal) {
+        if (!isFree(start)) {
+            return false;
+        }
+        int startRegion = getRegion(start);
+        if (isFree(goal)) {
+            return getRegion(goal) == startRegion;
+        }
+        for (int i = 0; i < 4; i++) {
+            int neighbour = grid.getOpenNeighbour(goal, i);
+            if (neighbour == start || (neighbour >= 0 && isFree(neighbour) && getRegion(neighbour) == startRegion)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //returns the length of the shortest path from a free cell to the tail, or -1 if the tail cannot be reached
+    public int getDistanceToTail(int id) {
+        if (!tailSearched) {
+            searchFromTail();
+        }
+        return tailStamp[id] == generation ? tailDistance[id] : -1;
+    }
+
+    private void flood(int start, int label) {
+        int head = 0, tail = 0;
+        queue[tail++] = start;
+        regionStamp[start] = generation;
+        region[start] = label;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int i = 0; i < 4; i++) {
+                int neighbour = grid.getOpenNeighbour(current, i);
+                if (neighbour >= 0 && regionStamp[neighbour] != generation && isFree(neighbour)) {
+                    regionStamp[neighbour] = generation;
+                    region[neighbour] = label;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        regionSize[label] = tail;
+    }
+
+    private void searchFromTail() {
+        tailSearched = true;
+        int head = 0, tail = 0;
+        int snakeTail = snake.getSnakeTail().getId();
+        for (int i = 0; i < 4; i++) {
+            int neighbour = grid.getOpenNeighbour(snakeTail, i);
+            if (neighbour >= 0 && tailStamp[neighbour] != generation && isFree(neighbour)) {
+                tailStamp[neighbour] = generation;
+                tailDistance[neighbour] = 1;
+                queue[tail++] = neighbour;
+            }
+        }
+        while (head < tail) {
+            int current = queue[head++];
+            for (int i = 0; i < 4; i++) {
+                int neighbour = grid.getOpenNeighbour(current, i);
+                if (neighbour >= 0 && tailStamp[neighbour] != generation && isFree(neighbour)) {
+                    tailStamp[neighbour] = generation;
+                    tailDistance[neighbour] = tailDistance[current] + 1;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+    }
+}
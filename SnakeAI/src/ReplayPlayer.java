@@ -0,0 +1,154 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+//The ReplayPlayer plays back a game recorded by ReplayRecorder on its own GameEngine, which can be stepped or shown
+//like any other game. It is the engine's strategy, giving it the recorded moves, and it puts every food spawn where
+//the recording has it instead of where the engine picks, so replays recorded before the engine changed how it picks
+//a free cell play back the same. A replay that no longer fits the game (for example after the rules changed) fails
+//loudly instead of showing something else.
+//Every SNAPSHOT_INTERVAL moves the player keeps a snapshot of the game, so seeking to any move only has to play at
+//most SNAPSHOT_INTERVAL moves from the closest snapshot before it.
+public class ReplayPlayer implements MoveStrategy, GameListener {
+    private static final int SNAPSHOT_INTERVAL = 1024;
+
+    private ByteBuffer data;
+    //the position of the first move in data, and of the next bit to be read
+    private long dataStart, bitPosition;
+    private int idBits;
+
+    private GameEngine engine;
+    private int startMoves, recordedMoves;
+    private GameEngine.Outcome recordedOutcome;
+
+    //snapshots[i] is the game after startMoves + i * SNAPSHOT_INTERVAL moves, and bitPositions[i] where the next
+    //move is in data then
+    private ArrayList<GameSnapshot> snapshots = new ArrayList<>();
+    private ArrayList<Long> bitPositions = new ArrayList<>();
+
+    public ReplayPlayer(Path file) throws IOException {
+        this(file, null);
+    }
+
+    //plays back a game recorded on the map, which has to be given as a replay only holds the size of the board and a
+    //hash of its walls. With null the board has no inner walls. Fails if the replay was recorded on another board.
+    public ReplayPlayer(Path file, Grid map) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.getInt() != ReplayRecorder.MAGIC) {
+            throw new IOException(file + " is not a replay");
+        }
+        if (data.get() != ReplayRecorder.VERSION) {
+            throw new IOException(file + " is a replay of an unknown version");
+        }
+        int xLength = data.getInt(), yLength = data.getInt();
+        if (map != null && (map.getXLength() != xLength || map.getYLength() != yLength)) {
+            throw new IOException(file + " is a replay of a " + xLength + "x" + yLength + " game, but the map is "
+                    + map.getXLength() + "x" + map.getYLength());
+        }
+        Grid grid = map != null ? map : new Grid(xLength, yLength);
+        if (data.getLong() != grid.getWallHash()) {
+            throw new IOException(file + " was recorded on a board with other walls than "
+                    + (map != null ? "the map" : "an open board, give the map it was recorded on with --map"));
+        }
+        recordedMoves = data.getInt();
+        int outcome = data.get();
+        if (recordedMoves < 0 || outcome < 0) {
+            throw new IOException(file + " is a replay that was not closed");
+        }
+        recordedOutcome = GameEngine.Outcome.values()[outcome];
+
+        int newTails = data.getInt(), food = data.getInt();
+        long randomState = data.getLong();
+        startMoves = data.getInt();
+        int[] cells = new int[data.getInt()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = data.getInt();
+        }
+        dataStart = data.position();
+        idBits = ReplayRecorder.getIdBits(grid);
+
+        engine = new GameEngine(grid, 0);
+        engine.restore(new GameSnapshot(grid.getXLength(), grid.getYLength(), grid.getWallHash(), cells, newTails, food,
+                randomState, startMoves, GameEngine.Outcome.RUNNING));
+        engine.setStrategy(this);
+        engine.setListener(this);
+    }
+
+    @Override
+    public Cell getNextCell(GameState game) {
+        int played = engine.getMoves() - startMoves;
+        if (played % SNAPSHOT_INTERVAL == 0 && played / SNAPSHOT_INTERVAL == snapshots.size()) {
+            snapshots.add(engine.snapshot());
+            bitPositions.add(bitPosition);
+        }
+        if (played >= recordedMoves) {
+            //the recording ends here, which stops the game
+            return null;
+        }
+        int direction = (int) readBits(2);
+        return game.getCell(game.getGrid().getNeighbour(game.getSnake().getSnakeHead().getId(), direction));
+    }
+
+    @Override
+    public void foodPlaced(Cell food) {
+        Cell recorded = engine.getCell((int) readBits(idBits));
+        if (!engine.getSnake().getFreeCells().contains(recorded.getId())) {
+            throw new IllegalStateException("The food was recorded at " + recorded + " on move " + engine.getMoves()
+                    + ", but the snake is there");
+        }
+        engine.setFood(recorded);
+    }
+
+    private long readBits(int count) {
+        long value = 0;
+        int read = 0;
+        while (read < count) {
+            int offset = (int) (bitPosition & 7);
+            int take = Math.min(8 - offset, count - read);
+            int bits = (data.get((int) (dataStart + (bitPosition >>> 3))) >>> offset) & ((1 << take) - 1);
+            value |= (long) bits << read;
+            read += take;
+            bitPosition += take;
+        }
+        return value;
+    }
+
+    //plays the game to the given move number, going back to a snapshot if needed. Returns whether the game got there,
+    //which it does not if the move is before the recording started or after it ended.
+    public boolean seek(int move) {
+        if (move < startMoves) {
+            return false;
+        }
+        int snapshot = Math.min((move - startMoves) / SNAPSHOT_INTERVAL, snapshots.size() - 1);
+        if (snapshot >= 0 && (engine.getMoves() > move || snapshots.get(snapshot).getMoves() > engine.getMoves())) {
+            engine.restore(snapshots.get(snapshot));
+            bitPosition = bitPositions.get(snapshot);
+        }
+        while (engine.getMoves() < move && engine.step()) {
+        }
+        return engine.getMoves() == move;
+    }
+
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    //the move number the recording started at
+    public int getStartMoves() {
+        return startMoves;
+    }
+
+    public int getRecordedMoves() {
+        return recordedMoves;
+    }
+
+    //how the recorded game ended. The replayed game is STOPPED instead if it was stopped or stalled.
+    public GameEngine.Outcome getRecordedOutcome() {
+        return recordedOutcome;
+    }
+}
@@ -0,0 +1,134 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//The ReplayRecorder writes everything that happens in a game to a file, so that ReplayPlayer can play it back move
+//for move. The file starts with a header:
+//  magic "SNKR", version, xLength, yLength, wall hash (see Grid.getWallHash), moves recorded, outcome, and a
+//  snapshot of the game when recording started: newTails, food, random state, moves, snake length and the snake's
+//  cells from the tail to the head.
+//The amount of moves and the outcome are only known when the recorder is closed, and are filled in then.
+//After the header comes a stream of bits, filled from the lowest bit of each byte up. Every move is 2 bits, the
+//direction the head moved in (see Grid.getNeighbour), followed by the id of every food spawn it caused in as many bits
+//as the largest cell id needs. Bits are collected in a buffer and written to the file in large blocks.
+public class ReplayRecorder implements GameListener, Closeable {
+    static final int MAGIC = 0x534E4B52;
+    static final byte VERSION = 2;
+    //where in the header the amount of moves recorded is
+    static final int MOVES_OFFSET = 21;
+
+    private GameEngine engine;
+    private FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+    //bits that have not been put in the buffer yet, the oldest in the lowest bit
+    private long pendingBits = 0;
+    private int pendingCount = 0;
+    private int idBits;
+    private int startMoves;
+
+    //starts recording the game from where it is now. The recorder replaces the engine's listener until it is closed.
+    public ReplayRecorder(GameEngine engine, Path file) throws IOException {
+        this.engine = engine;
+        idBits = getIdBits(engine.getGrid());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        GameSnapshot snapshot = engine.snapshot();
+        startMoves = snapshot.getMoves();
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.putInt(snapshot.getXLength());
+        buffer.putInt(snapshot.getYLength());
+        buffer.putLong(snapshot.getWallHash());
+        buffer.putInt(-1);
+        buffer.put((byte) -1);
+        buffer.putInt(snapshot.getNewTails());
+        buffer.putInt(snapshot.getFood());
+        buffer.putLong(snapshot.getRandomState());
+        buffer.putInt(snapshot.getMoves());
+        buffer.putInt(snapshot.getLength());
+        for (int i = 0; i < snapshot.getLength(); i++) {
+            if (buffer.remaining() < 4) {
+                flush();
+            }
+            buffer.putInt(snapshot.getCell(i));
+        }
+        engine.setListener(this);
+    }
+
+    //the amount of bits a food spawn takes in a replay of a game on the grid
+    static int getIdBits(Grid grid) {
+        return 32 - Integer.numberOfLeadingZeros(grid.getCellCount() - 1);
+    }
+
+    @Override
+    public void moved(int direction) {
+        if (direction < 0) {
+            throw new IllegalStateException("Only moves to a neighbouring cell can be recorded, but the snake moved "
+                    + "to " + engine.getSnake().getSnakeHead() + " on move " + engine.getMoves());
+        }
+        writeBits(direction, 2);
+    }
+
+    @Override
+    public void foodPlaced(Cell food) {
+        writeBits(food.getId(), idBits);
+    }
+
+    private void writeBits(int value, int count) {
+        pendingBits |= (long) value << pendingCount;
+        pendingCount += count;
+        while (pendingCount >= 8) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) pendingBits);
+            pendingBits >>>= 8;
+            pendingCount -= 8;
+        }
+    }
+
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    //writes the last bits and fills in the amount of moves and the outcome. Has to be called on the thread playing
+    //the game.
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        engine.setListener(GameListener.NONE);
+        try {
+            if (pendingCount > 0) {
+                writeBits(0, 8 - pendingCount);
+            }
+            flush();
+
+            ByteBuffer trailer = ByteBuffer.allocate(5);
+            trailer.putInt(engine.getMoves() - startMoves);
+            trailer.put((byte) engine.getOutcome().ordinal());
+            trailer.flip();
+            while (trailer.hasRemaining()) {
+                channel.write(trailer, MOVES_OFFSET + trailer.position());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            channel.close();
+        }
+    }
+}
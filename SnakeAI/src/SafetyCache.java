@@ -0,0 +1,123 @@
+//The SafetyCache remembers the moves Pathfinder picked after looking at the whole board, which it does when it stalls
+//or moves conservatively (see Pathfinder.getNextCellConservatively). A snake circling while it waits for a way to the
+//food comes back to the same board again and again, and then the move is looked up instead of flood filling the board.
+//Board states are keyed by a 64 bit Zobrist hash of the cells the snake covers, its head and tail, the food and the
+//question asked, so a different board is only ever mistaken for one in the cache by a hash collision, which is
+//vanishingly unlikely. The cache only works for boards whose walls never change, so not in an Arena.
+//The keys and moves are kept in flat arrays with open addressing, and the cache never grows past the memory it was
+//given. A key can only be in the PROBES slots after its home slot. When they are all taken, the one used the longest
+//time ago is replaced. A cache belongs to one game, as it is not thread safe.
+public class SafetyCache {
+    //a cache that stores nothing
+    public static final SafetyCache NONE = new SafetyCache(0);
+    //returned by get for a board state that is not in the cache
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    private static final int PROBES = 8;
+    //a key, a value and when it was last used
+    private static final int BYTES_PER_ENTRY = 8 + 4 + 4;
+
+    //an empty slot has key 0, so a key of 0 is stored as 1
+    private long[] keys;
+    private int[] values;
+    private int[] lastUsed;
+    private int mask;
+    //goes up by one every time the cache is used, and is only compared by subtraction, so it can wrap around
+    private int clock = 0;
+    private int size = 0;
+    private long hits = 0, misses = 0, evictions = 0;
+
+    //makes a cache taking at most maxBytes of memory. With too little for a few entries it stores nothing.
+    public SafetyCache(long maxBytes) {
+        long entries = maxBytes / BYTES_PER_ENTRY;
+        int capacity = entries < PROBES ? 0 : (int) Long.highestOneBit(Math.min(entries, 1 << 30));
+        keys = new long[capacity];
+        values = new int[capacity];
+        lastUsed = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    //returns the value stored for the key, or MISSING
+    public int get(long key) {
+        if (keys.length == 0) {
+            return MISSING;
+        }
+        key = key == 0 ? 1 : key;
+        int home = (int) key & mask;
+        for (int i = 0; i < PROBES; i++) {
+            int slot = (home + i) & mask;
+            if (keys[slot] == key) {
+                hits++;
+                lastUsed[slot] = clock++;
+                return values[slot];
+            }
+            if (keys[slot] == 0) {
+                break;
+            }
+        }
+        misses++;
+        return MISSING;
+    }
+
+    public void put(long key, int value) {
+        if (keys.length == 0) {
+            return;
+        }
+        key = key == 0 ? 1 : key;
+        int home = (int) key & mask;
+        int oldest = home;
+        for (int i = 0; i < PROBES; i++) {
+            int slot = (home + i) & mask;
+            if (keys[slot] == key || keys[slot] == 0) {
+                if (keys[slot] == 0) {
+                    size++;
+                }
+                store(slot, key, value);
+                return;
+            }
+            if (clock - lastUsed[slot] > clock - lastUsed[oldest]) {
+                oldest = slot;
+            }
+        }
+        evictions++;
+        store(oldest, key, value);
+    }
+
+    private void store(int slot, long key, int value) {
+        keys[slot] = key;
+        values[slot] = value;
+        lastUsed[slot] = clock++;
+    }
+
+    public boolean isEnabled() {
+        return keys.length > 0;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    @Override
+    public String toString() {
+        long lookups = hits + misses;
+        return String.format("safety cache: %d hits, %d misses (%.1f%% hit rate), %d/%d entries, %d evictions, %d KB",
+                hits, misses, lookups == 0 ? 0 : 100.0 * hits / lookups, size, keys.length, evictions,
+                (long) keys.length * BYTES_PER_ENTRY / 1024);
+    }
+}
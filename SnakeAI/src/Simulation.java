@@ -0,0 +1,191 @@
+import java.awt.event.KeyEvent;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+//The Simulation plays a GameEngine on its own thread, so that the window stays responsive however long the AI takes
+//to plan a move. Only this thread touches the engine. The window gets the game through a mailbox that holds at most
+//one GameFrame: a new frame is only put in once the window has taken the last one, and until then the changed cells
+//are collected, so the window never misses a change however far the simulation gets ahead of it.
+//Key presses go the other way through a queue and are handled on this thread before the next move.
+public class Simulation implements Runnable {
+    private GameEngine engine;
+    private Grid grid;
+    //how long one move takes. With 0 the game moves as fast as the AI can plan.
+    private long moveNanos;
+    //the total time spent in engine.step
+    private long stepNanos = 0;
+
+    //run on the simulation thread after every move, and once the game is over
+    private Runnable moveListener = () -> {
+    };
+    private Runnable gameOverListener = () -> {
+    };
+
+    private final AtomicReference<GameFrame> mailbox = new AtomicReference<>();
+    private final ConcurrentLinkedQueue<Integer> keys = new ConcurrentLinkedQueue<>();
+
+    //the cells that changed since the last frame was put in the mailbox, each listed once
+    private int[] dirty;
+    private boolean[] isDirty;
+    private int dirtyCount = 0;
+
+    public Simulation(GameEngine engine, long moveNanos) {
+        this.engine = engine;
+        this.moveNanos = moveNanos;
+        grid = engine.getGrid();
+        dirty = new int[grid.getCellCount()];
+        isDirty = new boolean[grid.getCellCount()];
+    }
+
+    public void start() {
+        Thread thread = new Thread(this, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        //the first frame has every cell so that the window can draw the whole board
+        for (int id = 0; id < grid.getCellCount(); id++) {
+            markDirty(id);
+        }
+        offerFrame();
+
+        long nextMove = System.nanoTime();
+        while (!engine.isGameOver()) {
+            handleKeys();
+            if (engine.isGameOver()) {
+                break;
+            }
+
+            Snake snake = engine.getSnake();
+            markDirty(snake.getSnakeHead().getId());
+            markDirty(snake.getSnakeTail().getId());
+            long start = System.nanoTime();
+            engine.step();
+            stepNanos += System.nanoTime() - start;
+            moveListener.run();
+            //the old head is now body, the old tail may be empty, and the old food is under the new head
+            markDirty(snake.getSnakeHead().getId());
+            markDirty(snake.getSnakeTail().getId());
+            markDirty(engine.getFood().getId());
+            offerFrame();
+
+            if (moveNanos == 0) {
+                continue;
+            }
+            nextMove += moveNanos;
+            long wait = nextMove - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                //the AI took longer than a move, so do not try to catch up
+                nextMove = System.nanoTime();
+            }
+        }
+
+        gameOverListener.run();
+
+        //the last frame shows how the game ended, so it has to get through
+        markDirty(engine.getSnake().getSnakeHead().getId());
+        while (!offerFrame()) {
+            LockSupport.parkNanos(1_000_000);
+        }
+    }
+
+    //puts a frame of the changed cells in the mailbox if the window has taken the last one. Returns whether it did.
+    private boolean offerFrame() {
+        if (mailbox.get() != null) {
+            return false;
+        }
+        int[] cells = new int[dirtyCount];
+        GameFrame.Kind[] kinds = new GameFrame.Kind[dirtyCount];
+        for (int i = 0; i < dirtyCount; i++) {
+            cells[i] = dirty[i];
+            kinds[i] = getKind(dirty[i]);
+            isDirty[dirty[i]] = false;
+        }
+        dirtyCount = 0;
+        mailbox.set(new GameFrame(cells, kinds, engine.getMoves(), engine.getSnake().getBodyLength() + 2,
+                engine.getOutcome(), stepNanos));
+        return true;
+    }
+
+    private void markDirty(int id) {
+        if (!isDirty[id]) {
+            isDirty[id] = true;
+            dirty[dirtyCount++] = id;
+        }
+    }
+
+    //what covers the cell, in the order they are drawn over each other
+    private GameFrame.Kind getKind(int id) {
+        Snake snake = engine.getSnake();
+        if (id == snake.getSnakeHead().getId() && engine.isGameOver()) {
+            return GameFrame.Kind.DEAD;
+        }
+        if (id == engine.getFood().getId()) {
+            return GameFrame.Kind.FOOD;
+        }
+        if (id == snake.getSnakeTail().getId()) {
+            return GameFrame.Kind.TAIL;
+        }
+        if (id == snake.getSnakeHead().getId()) {
+            return GameFrame.Kind.HEAD;
+        }
+        if (snake.isOccupied(id)) {
+            return GameFrame.Kind.BODY;
+        }
+        return grid.isWall(id) ? GameFrame.Kind.WALL : GameFrame.Kind.EMPTY;
+    }
+
+    private void handleKeys() {
+        Integer keyCode;
+        while ((keyCode = keys.poll()) != null) {
+            if (keyCode == KeyEvent.VK_SPACE) {
+                //stop the game whenever
+                engine.stop();
+                return;
+            }
+            if (!engine.isHumanControls()) {
+                continue;
+            }
+            Snake snake = engine.getSnake();
+            switch (keyCode) {
+                case (KeyEvent.VK_UP):
+                    snake.addNextCellByDirection(Grid.UP);
+                    break;
+                case (KeyEvent.VK_RIGHT):
+                    snake.addNextCellByDirection(Grid.RIGHT);
+                    break;
+                case (KeyEvent.VK_DOWN):
+                    snake.addNextCellByDirection(Grid.DOWN);
+                    break;
+                case (KeyEvent.VK_LEFT):
+                    snake.addNextCellByDirection(Grid.LEFT);
+                    break;
+            }
+        }
+    }
+
+    //must be set before the simulation is started
+    public void setMoveListener(Runnable moveListener) {
+        this.moveListener = moveListener;
+    }
+
+    //must be set before the simulation is started
+    public void setGameOverListener(Runnable gameOverListener) {
+        this.gameOverListener = gameOverListener;
+    }
+
+    //takes the latest frame out of the mailbox, or returns null if there is no new one yet. Called by the window.
+    public GameFrame pollFrame() {
+        return mailbox.getAndSet(null);
+    }
+
+    //passes a key press on to the simulation thread. Called by the window.
+    public void keyPressed(int keyCode) {
+        keys.add(keyCode);
+    }
+}
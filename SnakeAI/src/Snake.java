@@ -1,118 +1,261 @@
 import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.Queue;
 
-public class Snake {
-    private Queue<Cell> body;
+public class Snake implements SnakeView {
+    private Grid grid;
+    //the body is kept as cell ids in a ring buffer, oldest (closest to the tail) first
+    private int[] body;
+    private int bodyStart = 0, bodyLength = 0;
+    private int ringMask;
+    //the sequence number of every cell covered by the snake, see SnakeView. VirtualSnake uses them to work out which
+    //cells are still covered after some simulated moves.
+    private int[] sequence;
+    private int nextSequence = 0;
+    //occupied has a bit set for every cell covered by the body or the tail, so checking a cell is constant time.
+    //occupancyHash is the xor of their Zobrist keys, see SnakeView.getOccupancyHash.
+    private long[] occupied;
+    private long occupancyHash = 0;
+    //the cells inside the walls not covered by the head, body or tail, which the food can be put on
+    private FreeCells freeCells;
     private ArrayList<Cell> nextCell;
     private int newTails = 0;
     public Cell snakeHead;
     private Cell snakeTail;
-    private int[] direction;
+    //the direction (see Grid.getNeighbour) a human controlled snake keeps moving in
+    private int direction = Grid.UP;
 
     //creates a new snake at (x, y)
-    public Snake(int x, int y) {
-        body = new LinkedList<>();
-        snakeHead = Game.getCell(x, y);
-        snakeTail = snakeHead;
+    public Snake(Grid grid, int x, int y) {
+        this.grid = grid;
+        int cells = grid.getCellCount();
+        body = new int[Integer.highestOneBit(cells - 1) << 1];
+        ringMask = body.length - 1;
+        occupied = new long[(cells + 63) / 64];
+        sequence = new int[cells];
+        freeCells = new FreeCells(cells);
 
-        //sets the default direction in human controlled snake
-        direction = new int[2]; //{x, y}
-        direction[0] = 0;
-        direction[1] = -1;
+        snakeHead = grid.getCell(x, y);
+        snakeTail = snakeHead;
+        sequence[snakeTail.getId()] = nextSequence++;
+        setOccupied(snakeTail.getId());
+        resetFreeCells();
 
         nextCell = new ArrayList<>();
     }
 
     //this is used when the human controls the snake
     public void move() {
-        body.add(snakeHead);
-
-        if (newTails == 0) {
-            snakeTail = body.remove();
-        } else {
-            newTails--;
-        }
-
         //if there is no next move manually queued, just keep heading in the same direction.
         //Otherwise, move to the queued cell
         if (nextCell.isEmpty()) {
-            snakeHead = Game.getCell(snakeHead.getX() + direction[0], snakeHead.getY() + direction[1]);
+            moveTo(grid.getCell(grid.getNeighbour(snakeHead.getId(), direction)));
         } else {
-            snakeHead = nextCell.remove(0);
+            moveTo(nextCell.remove(0));
         }
     }
 
     //this is used when the AI controls the snake
     public void moveAI() {
-        body.add(snakeHead);
+        moveTo(nextCell.remove(0));
+    }
+
+    //moves the head to the cell, and the tail forward unless the snake is growing
+    public void moveTo(Cell cell) {
+        addBody(snakeHead.getId());
 
-        snakeHead = nextCell.remove(0);
+        snakeHead = cell;
+        freeCells.remove(cell.getId());
 
         if (newTails == 0) {
-            snakeTail = body.remove();
+            Cell oldTail = snakeTail;
+            clearOccupied(oldTail.getId());
+            snakeTail = grid.getCell(removeBody());
+            setOccupied(snakeTail.getId());
+            //the old tail is free unless the head has just moved onto it, or it is still the tail, which it is on the
+            //first move, when the head started on the tail
+            if (oldTail != snakeHead && oldTail != snakeTail) {
+                freeCells.add(oldTail.getId());
+            }
         } else {
             newTails--;
         }
     }
 
+    //puts the snake on the cells, given from the tail to the head, and frees the cells it covered before. Only the
+    //cells of the old and the new snake are touched, so it takes time in the length of the snakes and not in the size
+    //of the board.
+    public void restore(int[] cells, int newTails) {
+        clearOccupied(snakeTail.getId());
+        freeCells.add(snakeTail.getId());
+        for (int i = 0; i < bodyLength; i++) {
+            int id = body[(bodyStart + i) & ringMask];
+            clearOccupied(id);
+            freeCells.add(id);
+        }
+        //the head of a snake that ran into a wall is on the wall, which is never free
+        if (!grid.isWall(snakeHead.getId())) {
+            freeCells.add(snakeHead.getId());
+        }
+        //the sequence numbers jump ahead by more than the longest path, so a path planned before the restore can
+        //never look like it is still being followed
+        nextSequence += sequence.length;
+        bodyStart = 0;
+        bodyLength = 0;
+
+        snakeTail = grid.getCell(cells[0]);
+        sequence[cells[0]] = nextSequence++;
+        setOccupied(cells[0]);
+        for (int i = 1; i < cells.length - 1; i++) {
+            addBody(cells[i]);
+        }
+        snakeHead = grid.getCell(cells[cells.length - 1]);
+        this.newTails = newTails;
+        nextCell.clear();
+        for (int id : cells) {
+            freeCells.remove(id);
+        }
+    }
+
+    //finds the free cells from scratch
+    private void resetFreeCells() {
+        freeCells.clear();
+        for (int id = 0; id < sequence.length; id++) {
+            if (!grid.isWall(id) && !isOccupied(id) && id != snakeHead.getId()) {
+                freeCells.add(id);
+            }
+        }
+    }
+
+    public FreeCells getFreeCells() {
+        return freeCells;
+    }
+
+    //the amount of cells the snake covers, which is one at the start, when the head is on the tail
+    public int getLength() {
+        return snakeHead == snakeTail ? 1 : bodyLength + 2;
+    }
+
+    //returns the ids of the cells the snake covers, from the tail to the head
+    public int[] getCells() {
+        int[] cells = new int[bodyLength + 2];
+        cells[0] = snakeTail.getId();
+        for (int i = 0; i < bodyLength; i++) {
+            cells[i + 1] = body[(bodyStart + i) & ringMask];
+        }
+        cells[bodyLength + 1] = snakeHead.getId();
+        return cells;
+    }
+
     public void grow() {
         newTails += 1;
     }
 
-    public void addNextCellByAI(Cell cell) {
-        nextCell.add(cell);
+    private void addBody(int id) {
+        body[(bodyStart + bodyLength) & ringMask] = id;
+        bodyLength++;
+        sequence[id] = nextSequence++;
+        setOccupied(id);
     }
 
-    //when human controls
-    public void addNextCellByDirection(int x, int y) {
-        direction[0] = x;
-        direction[1] = y;
-        if (!nextCell.isEmpty()) {
-            nextCell.add(Game.getCell(nextCell.get(nextCell.size() - 1).getX() + x,
-                    nextCell.get(nextCell.size() - 1).getY() + y));
-        } else {
-            nextCell.add(Game.getCell(snakeHead.getX() + x, snakeHead.getY() + y));
+    private int removeBody() {
+        int id = body[bodyStart];
+        bodyStart = (bodyStart + 1) & ringMask;
+        bodyLength--;
+        return id;
+    }
+
+    private void setOccupied(int id) {
+        if (!isOccupied(id)) {
+            occupied[id >>> 6] |= 1L << id;
+            occupancyHash ^= Grid.getZobristKey(id);
         }
     }
 
-    public Cell getSnakeTail() {
-        return snakeTail;
+    private void clearOccupied(int id) {
+        if (isOccupied(id)) {
+            occupied[id >>> 6] &= ~(1L << id);
+            occupancyHash ^= Grid.getZobristKey(id);
+        }
     }
 
-    public int getNewTails() {
-        return newTails;
+    @Override
+    public boolean isOccupied(int id) {
+        return (occupied[id >>> 6] & (1L << id)) != 0;
     }
 
-    public int getBodyLength() {
-        return body.size();
+    @Override
+    public long getOccupancyHash() {
+        return occupancyHash;
     }
 
-    public int getNextCellsSize() {
-        return nextCell.size();
+    @Override
+    public int getMovesUntilFree(int id) {
+        //the tail moves one cell further every move once the snake has finished growing
+        return sequence[id] - getTailSequence() + 1 + newTails;
+    }
+
+    @Override
+    public int getSequence(int id) {
+        return sequence[id];
+    }
+
+    @Override
+    public int getTailSequence() {
+        return nextSequence - bodyLength - 1;
+    }
+
+    @Override
+    public int getHeadSequence() {
+        return nextSequence;
+    }
+
+    @Override
+    public Cell getCellAtSequence(int sequenceNumber) {
+        int i = sequenceNumber - getTailSequence() - 1;
+        return i < 0 ? snakeTail : getBodyCell(i);
+    }
+
+    public void addNextCellByAI(Cell cell) {
+        nextCell.add(cell);
+    }
+
+    //when human controls
+    public void addNextCellByDirection(int direction) {
+        Cell last = nextCell.isEmpty() ? snakeHead : nextCell.get(nextCell.size() - 1);
+        if (grid.isWall(last.getId())) {
+            //the snake dies on the wall before it gets any further
+            return;
+        }
+        this.direction = direction;
+        //the neighbour may be a wall, which the snake has to be able to run into
+        nextCell.add(grid.getCell(grid.getNeighbour(last.getId(), direction)));
     }
 
-    public Queue<Cell> getBody() {
-        return body;
+    @Override
+    public Cell getSnakeHead() {
+        return snakeHead;
     }
 
-    public ArrayList<Cell> getNextCell() {
-        return nextCell;
+    @Override
+    public Cell getSnakeTail() {
+        return snakeTail;
     }
 
-    public void setBody(Queue<Cell> body) {
-        this.body = body;
+    @Override
+    public int getNewTails() {
+        return newTails;
     }
 
-    public void setSnakeTail(Cell cell) {
-        snakeTail = cell;
+    @Override
+    public int getBodyLength() {
+        return bodyLength;
     }
 
-    public void setNewTails(int n) {
-        newTails = n;
+    //returns the i-th body cell, counting from the one closest to the tail
+    public Cell getBodyCell(int i) {
+        return grid.getCell(body[(bodyStart + i) & ringMask]);
     }
 
-    public void setNextCell(ArrayList<Cell> nextCells) {
-        nextCell = nextCells;
+    public int getNextCellsSize() {
+        return nextCell.size();
     }
 }
@@ -0,0 +1,38 @@
+//A read-only view of a snake's position. The pathfinder searches against a view, so it can plan for the live snake or
+//for a VirtualSnake that has been moved ahead along a path.
+public interface SnakeView {
+    Cell getSnakeHead();
+
+    Cell getSnakeTail();
+
+    int getBodyLength();
+
+    //the amount of moves the tail will stay still for because the snake is growing
+    int getNewTails();
+
+    //returns whether the cell is covered by the snake's body or tail. The head is not included.
+    boolean isOccupied(int id);
+
+    //the xor of the Zobrist keys (see Grid.getZobristKey) of the cells covered by the body and tail, so two positions
+    //of the snake covering the same cells have the same hash
+    long getOccupancyHash();
+
+    //returns the amount of moves until an occupied cell is left behind by the tail. The head can move into the cell
+    //on that move, the same way it can follow its tail.
+    int getMovesUntilFree(int id);
+
+    //Every cell that becomes part of the snake gets the next sequence number, so the tail, the body from oldest to
+    //newest and the head always have consecutive numbers. The numbers can wrap around, so they are only ever compared
+    //by subtraction.
+
+    //returns the sequence number of a cell covered by the body or tail
+    int getSequence(int id);
+
+    int getTailSequence();
+
+    //the head's cell will get this sequence number when the snake next moves
+    int getHeadSequence();
+
+    //returns the tail or body cell with the given sequence number
+    Cell getCellAtSequence(int sequenceNumber);
+}
@@ -0,0 +1,164 @@
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+//The Tournament plays many seeded headless games for each strategy across all cores, streams one CSV row per game
+//and prints a summary with the win rate, moves needed to fill the board and the causes of death for every strategy.
+//Every strategy plays the same seeds so the results can be compared directly.
+//
+//usage: java Tournament [--time-aware] [games] [seed] [strategies] [csv file] [width] [height]
+//strategies is a comma separated list of strategy names as accepted by MoveStrategies.create, or default.
+//--time-aware plays every strategy a second time with the experimental time-aware search (see Pathfinder.setTimeAware)
+//on the same seeds, listed with TIME_AWARE added to its name.
+public class Tournament {
+    static final String TIME_AWARE = "+time-aware";
+
+    private int games;
+    private long seed;
+    private String[] strategies;
+    //every game is played on the same grid, which never changes, so it is only built once
+    private Grid grid;
+
+    public Tournament(int games, long seed, String[] strategies, int xLength, int yLength) {
+        this(games, seed, strategies, xLength, yLength, false);
+    }
+
+    public Tournament(int games, long seed, String[] strategies, int xLength, int yLength, boolean timeAware) {
+        this.games = games;
+        this.seed = seed;
+        this.strategies = strategies;
+        if (timeAware) {
+            this.strategies = Arrays.copyOf(strategies, strategies.length * 2);
+            for (int i = 0; i < strategies.length; i++) {
+                this.strategies[strategies.length + i] = strategies[i] + TIME_AWARE;
+            }
+        }
+        this.grid = new Grid(xLength, yLength);
+
+        //checked up front so that a typo fails before any game is played
+        for (String strategy : strategies) {
+            configure(strategy, new GameEngine(grid, seed));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        boolean timeAware = arguments.remove("--time-aware");
+        args = arguments.toArray(new String[0]);
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        String[] strategies = (args.length > 2 ? args[2] : "default,greedy,conservative,hamiltonian").split(",");
+        String csvFile = args.length > 3 ? args[3] : "tournament.csv";
+        int xLength = args.length > 4 ? Integer.parseInt(args[4]) : 15;
+        int yLength = args.length > 5 ? Integer.parseInt(args[5]) : 10;
+
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(Paths.get(csvFile), StandardCharsets.UTF_8))) {
+            Tournament tournament = new Tournament(games, seed, strategies, xLength, yLength, timeAware);
+            Map<String, List<Result>> results = tournament.run(csv);
+            for (String strategy : tournament.strategies) {
+                System.out.println(summarize(strategy, results.get(strategy)));
+            }
+        }
+    }
+
+    //plays every game and writes each result to the csv as soon as it finishes
+    public Map<String, List<Result>> run(PrintWriter csv) throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        CompletionService<Result> completionService = new ExecutorCompletionService<>(pool);
+        Map<String, List<Result>> results = new LinkedHashMap<>();
+
+        try {
+            for (String strategy : strategies) {
+                results.put(strategy, new ArrayList<>());
+                for (int i = 0; i < games; i++) {
+                    long gameSeed = seed + i;
+                    completionService.submit(() -> play(strategy, gameSeed));
+                }
+            }
+
+            csv.println("strategy,seed,outcome,moves,length");
+            for (int i = 0; i < games * strategies.length; i++) {
+                Result result = completionService.take().get();
+                results.get(result.strategy).add(result);
+                csv.println(result.strategy + "," + result.seed + "," + result.outcome + "," + result.moves + ","
+                        + result.length);
+            }
+            csv.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    //plays a single game on its own engine, so games running on different threads never share any state
+    private Result play(String strategy, long gameSeed) {
+        GameEngine engine = new GameEngine(grid, gameSeed);
+        configure(strategy, engine);
+        engine.runToCompletion();
+        return new Result(strategy, gameSeed, engine.getOutcome(), engine.getMoves(),
+                engine.getSnake().getBodyLength() + 2);
+    }
+
+    private static void configure(String strategy, GameEngine engine) {
+        boolean timeAware = strategy.endsWith(TIME_AWARE);
+        if (timeAware) {
+            strategy = strategy.substring(0, strategy.length() - TIME_AWARE.length());
+        }
+        if (timeAware || !strategy.equals("default")) {
+            String name = strategy.equals("default") ? MoveStrategies.DEFAULT : strategy;
+            engine.setStrategy(MoveStrategies.create(name, engine, timeAware));
+        }
+    }
+
+    public static String summarize(String strategy, List<Result> results) {
+        List<Integer> winningMoves = new ArrayList<>();
+        Map<GameEngine.Outcome, Integer> outcomes = new EnumMap<>(GameEngine.Outcome.class);
+        for (Result result : results) {
+            outcomes.merge(result.outcome, 1, Integer::sum);
+            if (result.outcome == GameEngine.Outcome.WON) {
+                winningMoves.add(result.moves);
+            }
+        }
+        Collections.sort(winningMoves);
+
+        StringBuilder summary = new StringBuilder(strategy + ": ");
+        summary.append(String.format("won %d/%d (%.2f%%)", winningMoves.size(), results.size(),
+                100.0 * winningMoves.size() / results.size()));
+        if (!winningMoves.isEmpty()) {
+            double mean = 0;
+            for (int moves : winningMoves) {
+                mean += moves;
+            }
+            mean /= winningMoves.size();
+            summary.append(String.format(", moves to fill mean %.1f p50 %d p90 %d p99 %d", mean,
+                    percentile(winningMoves, 50), percentile(winningMoves, 90), percentile(winningMoves, 99)));
+        }
+        summary.append(", outcomes ").append(outcomes);
+        return summary.toString();
+    }
+
+    //nearest-rank percentile of a sorted list
+    private static int percentile(List<Integer> sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+
+    public static class Result {
+        final String strategy;
+        final long seed;
+        final GameEngine.Outcome outcome;
+        final int moves;
+        final int length;
+
+        Result(String strategy, long seed, GameEngine.Outcome outcome, int moves, int length) {
+            this.strategy = strategy;
+            this.seed = seed;
+            this.outcome = outcome;
+            this.moves = moves;
+            this.length = length;
+        }
+    }
+}
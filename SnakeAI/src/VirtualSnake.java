@@ -0,0 +1,138 @@
+import java.util.Arrays;
+
+//A VirtualSnake shows where a snake would be after following a path, without changing the snake. The snake's tail,
+//body and head, followed by the path, form one sequence of cells numbered by SnakeView's sequence numbers.
+//Moving the virtual snake only shifts the window of that sequence that is covered, so each move is constant time
+//and nothing is copied.
+public class VirtualSnake implements SnakeView {
+    private GameState game;
+    private SnakeView snake;
+
+    //the sequence numbers of the cells the virtual snake has moved through. A cell's entry is only valid if its stamp
+    //equals the current generation, so nothing has to be cleared between uses.
+    private int[] sequence, stamp;
+    private int generation = 0;
+    //the cells the virtual snake has added to the live sequence, starting with the live head
+    private int[] added;
+    private int addedCount;
+
+    private Cell snakeHead;
+    //tailSequence is the sequence number of the tail, headSequence the one the head gets when it next moves
+    private int tailSequence, headSequence;
+    private int newTails;
+
+    public VirtualSnake(GameState game) {
+        this.game = game;
+        int cells = game.getGrid().getCellCount();
+        sequence = new int[cells];
+        stamp = new int[cells];
+        added = new int[cells];
+    }
+
+    //puts the virtual snake where the given snake is
+    public void reset(SnakeView snake) {
+        this.snake = snake;
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+        addedCount = 0;
+        snakeHead = snake.getSnakeHead();
+        tailSequence = snake.getTailSequence();
+        headSequence = snake.getHeadSequence();
+        newTails = snake.getNewTails();
+    }
+
+    //moves the head to the cell, and the tail forward unless the snake is growing
+    public void moveTo(Cell cell) {
+        int id = snakeHead.getId();
+        sequence[id] = headSequence++;
+        stamp[id] = generation;
+        added[addedCount++] = id;
+
+        snakeHead = cell;
+
+        if (newTails == 0) {
+            tailSequence++;
+        } else {
+            newTails--;
+        }
+    }
+
+    @Override
+    public boolean isOccupied(int id) {
+        int cellSequence = getSequence(id);
+        return cellSequence - tailSequence >= 0 && headSequence - cellSequence > 0;
+    }
+
+    //worked out from the live snake's hash by adding the cells the virtual snake moved through and removing the ones
+    //its tail left behind. A cell that was both added and left behind cancels out.
+    @Override
+    public long getOccupancyHash() {
+        long hash = snake.getOccupancyHash();
+        for (int i = 0; i < addedCount; i++) {
+            hash ^= Grid.getZobristKey(added[i]);
+        }
+        for (int sequenceNumber = snake.getTailSequence(); sequenceNumber - tailSequence < 0; sequenceNumber++) {
+            hash ^= Grid.getZobristKey(getCellAtSequence(sequenceNumber).getId());
+        }
+        return hash;
+    }
+
+    @Override
+    public int getMovesUntilFree(int id) {
+        return getSequence(id) - tailSequence + 1 + newTails;
+    }
+
+    //returns the latest sequence number the cell had, or one that is outside of the snake if it was never covered
+    @Override
+    public int getSequence(int id) {
+        if (stamp[id] == generation) {
+            return sequence[id];
+        } else if (snake.isOccupied(id)) {
+            return snake.getSequence(id);
+        }
+        return tailSequence - 1;
+    }
+
+    @Override
+    public Cell getSnakeHead() {
+        return snakeHead;
+    }
+
+    @Override
+    public Cell getSnakeTail() {
+        return getCellAtSequence(tailSequence);
+    }
+
+    @Override
+    public Cell getCellAtSequence(int sequenceNumber) {
+        int i = sequenceNumber - snake.getHeadSequence();
+        if (i < 0) {
+            //the cell is part of the snake the virtual snake started from
+            return snake.getCellAtSequence(sequenceNumber);
+        }
+        return game.getCell(added[i]);
+    }
+
+    @Override
+    public int getTailSequence() {
+        return tailSequence;
+    }
+
+    @Override
+    public int getHeadSequence() {
+        return headSequence;
+    }
+
+    @Override
+    public int getNewTails() {
+        return newTails;
+    }
+
+    @Override
+    public int getBodyLength() {
+        return headSequence - tailSequence - 1;
+    }
+}